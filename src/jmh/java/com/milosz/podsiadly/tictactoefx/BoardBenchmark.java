@@ -0,0 +1,46 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BoardBenchmark {
+
+    @Param({"3:3", "15:5", "19:5"})
+    public String shape;
+
+    private Board board;
+    private int freeRow, freeCol;
+
+    @Setup
+    public void setup() {
+        String[] p = shape.split(":");
+        int size = Integer.parseInt(p[0]);
+        board = new Board(size, Integer.parseInt(p[1]));
+        // a few stones around the centre, no winner yet
+        int mid = size / 2;
+        board.makeMove(mid, mid, 1);
+        board.makeMove(0, 0, 2);
+        board.makeMove(mid, mid - 1, 1);
+        board.makeMove(size - 1, 0, 2);
+        freeRow = size - 1;
+        freeCol = size - 1;
+    }
+
+    @Benchmark
+    public boolean checkWin() { return board.checkWin(1); }
+
+    @Benchmark
+    public boolean isFull() { return board.isFull(); }
+
+    @Benchmark
+    public void makeUndoCycle(Blackhole bh) {
+        board.makeMove(freeRow, freeCol, 1);
+        bh.consume(board.checkWin(1));
+        board.undoMove(freeRow, freeCol);
+    }
+}
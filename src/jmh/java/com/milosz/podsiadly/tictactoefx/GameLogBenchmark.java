@@ -0,0 +1,54 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Scanning a log of a million random 3x3 games into GameLog.Stats.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GameLogBenchmark {
+    private static final int GAMES = 1_000_000;
+
+    private Path dir;
+    private Path file;
+
+    @Setup
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("tictactoefx-bench");
+        SplittableRandom rnd = new SplittableRandom(7);
+        try (GameLog log = new GameLog(dir)) {
+            for (int g = 0; g < GAMES; g++) {
+                GameEngine game = new GameEngine();
+                while (!game.isOver()) {
+                    int cell;
+                    do cell = rnd.nextInt(9); while (!game.isLegal(cell / 3, cell % 3));
+                    game.play(cell / 3, cell % 3);
+                }
+                log.append(game.getBoard(), game.getWinner(), rnd.nextBoolean(), 3, "Player 1", "Computer");
+            }
+        }
+        file = dir.resolve(GameLog.FILE);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public GameLog.Stats scan() throws IOException {
+        GameLog.Stats stats = new GameLog.Stats();
+        GameLog.scan(file, stats);
+        return stats;
+    }
+}
@@ -0,0 +1,53 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Lookups and leaderboard queries against a store of 5,000 players.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProfileStoreBenchmark {
+    private static final int PLAYERS = 5_000;
+
+    private Path dir;
+    private ProfileStore store;
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("tictactoefx-bench");
+        store = new ProfileStore(dir);
+        SplittableRandom rnd = new SplittableRandom(7);
+        for (int g = 0; g < PLAYERS * 10; g++) {
+            store.recordGame("player" + rnd.nextInt(PLAYERS), "player" + rnd.nextInt(PLAYERS),
+                    rnd.nextInt(3) == 0, 1 + rnd.nextInt(4), rnd.nextInt(3));
+        }
+        store.flush();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        store.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public ProfileStore.Profile lookup() throws IOException {
+        next = (next + 7919) % PLAYERS;
+        return store.getTotal("player" + next);
+    }
+
+    @Benchmark
+    public List<ProfileStore.Profile> leaderboard() throws IOException { return store.leaderboard(10); }
+}
@@ -0,0 +1,52 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchBenchmark {
+
+    // cell sequences played alternately from X; "" is the empty board
+    @Param({"", "4,0", "4,0,8,2", "0,4,8,2,6"})
+    public String opening;
+
+    private Board board;
+    private int player;
+    private AlphaBetaSearch search;
+    private WinBlockMoveEngine medium;
+    private MoveTable table;
+    private SplittableRandom rng;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        board = new Board();
+        player = 1;
+        if (!opening.isEmpty()) {
+            for (String cell : opening.split(",")) {
+                int c = Integer.parseInt(cell);
+                board.makeMove(c / 3, c % 3, player);
+                player = 3 - player;
+            }
+        }
+        rng = new SplittableRandom(1);
+        medium = new WinBlockMoveEngine(rng);
+        table = MoveTable.loadDefault();
+    }
+
+    // a fresh transposition table per call, so this measures a cold full solve
+    @Setup(Level.Invocation)
+    public void freshSearch() { search = new AlphaBetaSearch(12); }
+
+    @Benchmark
+    public AlphaBetaSearch.SearchResult hardSearchCold() { return search.search(board, player); }
+
+    @Benchmark
+    public int[] hardTableLookup() { return table.bestMove(board, player, rng); }
+
+    @Benchmark
+    public int[] mediumWinBlockScan() { return medium.chooseMove(board, player); }
+}
@@ -0,0 +1,301 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class AlphaBetaSearch {
+    // a win found after p plies scores WIN - p, so quicker wins and slower losses are preferred
+    public static final int WIN = 1_000_000;
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private static final int KILLERS = 2;
+    private static final int MATE_BOUND = WIN - 4096;
+
+    private final TranspositionTable table;
+    private final AtomicBoolean abort;
+    private final boolean sharedTable;
+    private SymmetryHasher hasher;
+    private LineEvaluator lines;
+    private boolean evaluating;   // a depth limit cuts this search short, so leaves get a static score
+    private Board board;
+    private int size, winLength, cellCount;
+    private int[] staticOrder;
+    private int[][] moveBuf, scoreBuf;
+    private int[][] killers;
+    private int[][] history;
+    private long nodes;
+    private int maxPly;
+
+    public static final class SearchResult {
+        public final int row, col;
+        public final int value;
+        public final long nodes;
+        public final int depth;   // deepest ply reached
+
+        SearchResult(int row, int col, int value, long nodes, int depth) {
+            this.row = row; this.col = col; this.value = value; this.nodes = nodes; this.depth = depth;
+        }
+
+        // +1 side to move wins, -1 it loses, 0 draw (or unknown at a depth limit, where value is a static score)
+        public int outcome() { return value >= MATE_BOUND ? 1 : value <= -MATE_BOUND ? -1 : 0; }
+
+        public int plies() { return outcome() == 0 ? 0 : WIN - Math.abs(value); }
+
+        public int[] move() { return new int[]{row, col}; }
+
+        @Override
+        public String toString() {
+            String v = outcome() > 0 ? "win in " + plies() : outcome() < 0 ? "loss in " + plies()
+                    : value == 0 ? "draw" : "static score " + value;
+            return "move (" + row + "," + col + ") " + v + ", " + nodes + " nodes, depth " + depth;
+        }
+    }
+
+    public AlphaBetaSearch() { this(18); }
+
+    // the transposition table survives between searches, so it keeps paying off across moves and rounds
+    public AlphaBetaSearch(int log2TableEntries) {
+        this(new TranspositionTable(log2TableEntries), null, false);
+    }
+
+    // for parallel workers: a shared table, and a flag that stops every worker at once
+    AlphaBetaSearch(TranspositionTable table, AtomicBoolean abort) {
+        this(table, abort, true);
+    }
+
+    private AlphaBetaSearch(TranspositionTable table, AtomicBoolean abort, boolean sharedTable) {
+        this.table = table;
+        this.abort = abort;
+        this.sharedTable = sharedTable;
+    }
+
+    public SearchResult search(Board board, int player) { return search(board, player, UNLIMITED); }
+
+    public SearchResult search(Board board, int player, int maxDepth) {
+        prepare(board);
+        evaluateBelow(maxDepth);
+        nodes = 0;
+        maxPly = 0;
+        int alpha = -WIN - 1, beta = WIN + 1;
+        long entry = table.probe(hasher.key(player));
+        int n = orderMoves(0, player, ttMove(entry));
+        int best = -1;
+        for (int i = 0; i < n; i++) {
+            int cell = moveBuf[0][i];
+            play(cell, player);
+            int score = -negamax(3 - player, 1, maxDepth - 1, -beta, -alpha);
+            unplay(cell);
+            if (best < 0 || score > alpha) { alpha = score; best = cell; }
+        }
+        if (best < 0) return null;
+        return new SearchResult(best / size, best % size, alpha, nodes, maxPly);
+    }
+
+    // nodes and deepest ply of the last search() or searchNode()
+    public long getNodes() { return nodes; }
+
+    public int getMaxPly() { return maxPly; }
+
+    // value for the side to move of an interior node at the given ply, searched within (alpha, beta)
+    int searchNode(Board board, int player, int ply, int depthLeft, int alpha, int beta) {
+        prepare(board);
+        evaluateBelow(depthLeft);
+        nodes = 0;
+        maxPly = ply;
+        return negamax(player, ply, depthLeft, alpha, beta);
+    }
+
+    public TranspositionTable getTable() { return table; }
+
+    private int negamax(int player, int ply, int depthLeft, int alpha, int beta) {
+        if ((++nodes & 0x3FF) == 0 && (Thread.currentThread().isInterrupted() || (abort != null && abort.get())))
+            throw new CancellationException("search cancelled");
+        if (ply > maxPly) maxPly = ply;
+        if (board.checkWin(3 - player)) return -(WIN - ply);
+        if (board.isFull()) return 0;
+        if (evaluating) {
+            if (lines.canWin(player)) return WIN - (ply + 1);
+            if (depthLeft <= 0) return lines.evaluate(player);
+        }
+        if (depthLeft <= 0) return 0;
+
+        int depth = Math.min(depthLeft, cellCount - board.getMoveCount());
+        long key = hasher.key(player);
+        long entry = table.probe(key);
+        if (entry != TranspositionTable.MISS && TranspositionTable.depth(entry) >= depth) {
+            int v = fromTable(TranspositionTable.value(entry), ply);
+            int flag = TranspositionTable.flag(entry);
+            if (flag == TranspositionTable.EXACT
+                    || (flag == TranspositionTable.LOWER && v >= beta)
+                    || (flag == TranspositionTable.UPPER && v <= alpha)) return v;
+        }
+
+        int alphaOrig = alpha;
+        int n = orderMoves(ply, player, ttMove(entry));
+        int best = -WIN - 1, bestCell = -1;
+        for (int i = 0; i < n; i++) {
+            int cell = moveBuf[ply][i];
+            play(cell, player);
+            int score = -negamax(3 - player, ply + 1, depthLeft - 1, -beta, -alpha);
+            unplay(cell);
+            if (score > best) { best = score; bestCell = cell; }
+            if (score > alpha) alpha = score;
+            if (alpha >= beta) {
+                storeKiller(ply, cell);
+                history[player][cell] += depth * depth;
+                break;
+            }
+        }
+
+        int flag = best <= alphaOrig ? TranspositionTable.UPPER
+                : best >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+        hasher.key(player);   // children moved the canonical symmetry; re-derive it for this node
+        table.store(key, toTable(best, ply), hasher.toCanonical(bestCell), depth, flag);
+        return best;
+    }
+
+    // the table keeps win/loss distances relative to the stored node, not to the search root
+    private static int toTable(int v, int ply) { return v >= MATE_BOUND ? v + ply : v <= -MATE_BOUND ? v - ply : v; }
+
+    private static int fromTable(int v, int ply) { return v >= MATE_BOUND ? v - ply : v <= -MATE_BOUND ? v + ply : v; }
+
+    private int ttMove(long entry) {
+        if (entry == TranspositionTable.MISS) return -1;
+        int m = TranspositionTable.move(entry);
+        return m < 0 ? -1 : hasher.fromCanonical(m);
+    }
+
+    // Table move first, then killers, then by history score, then by the static preference for cells
+    // on many lines (centre, then corners on 3x3). Insertion sort: lists are short and mostly pre-sorted.
+    private int orderMoves(int ply, int player, int ttMove) {
+        int[] moves = moveBuf[ply], scores = scoreBuf[ply];
+        int n = 0;
+        for (int cell : staticOrder) {
+            if (board.getCell(cell / size, cell % size) != 0) continue;
+            int score = history[player][cell];
+            if (cell == ttMove) score = Integer.MAX_VALUE;
+            else if (cell == killers[ply][0]) score = Integer.MAX_VALUE - 1;
+            else if (cell == killers[ply][1]) score = Integer.MAX_VALUE - 2;
+            int j = n++;
+            while (j > 0 && scores[j - 1] < score) { moves[j] = moves[j - 1]; scores[j] = scores[j - 1]; j--; }
+            moves[j] = cell; scores[j] = score;
+        }
+        return n;
+    }
+
+    private void storeKiller(int ply, int cell) {
+        if (killers[ply][0] == cell) return;
+        killers[ply][1] = killers[ply][0];
+        killers[ply][0] = cell;
+    }
+
+    private void play(int cell, int player) {
+        board.makeMove(cell / size, cell % size, player);
+        hasher.toggle(cell, player);
+        if (evaluating) lines.makeMove(cell, player);
+    }
+
+    private void unplay(int cell) {
+        int player = board.getCell(cell / size, cell % size);
+        hasher.toggle(cell, player);
+        if (evaluating) lines.undoMove(cell, player);
+        board.undoMove(cell / size, cell % size);
+    }
+
+    private void prepare(Board b) {
+        board = b;
+        if (staticOrder == null || b.getSize() != size || b.getWinLength() != winLength) resize(b);
+        hasher.reset(b);
+    }
+
+    // unlimited searches skip the evaluator's bookkeeping: they only ever score finished games
+    private void evaluateBelow(int depthLimit) {
+        evaluating = depthLimit < cellCount - board.getMoveCount();
+        if (evaluating) lines.reset(board);
+    }
+
+    private void resize(Board b) {
+        if (staticOrder != null && !sharedTable) table.clear();   // owners of a shared table clear it themselves
+        size = b.getSize();
+        winLength = b.getWinLength();
+        cellCount = size * size;
+        staticOrder = staticOrder(size, winLength);
+        moveBuf = new int[cellCount + 1][cellCount];
+        scoreBuf = new int[cellCount + 1][cellCount];
+        killers = new int[cellCount + 1][KILLERS];
+        for (int[] k : killers) Arrays.fill(k, -1);
+        history = new int[3][cellCount];
+        hasher = new SymmetryHasher(size);
+        lines = new LineEvaluator(size, winLength);
+    }
+
+    // cells sorted by how many winning segments pass through them, ties broken towards the centre
+    static int[] staticOrder(int size, int winLength) {
+        int cells = size * size;
+        long[] keyed = new long[cells];
+        for (int cell = 0; cell < cells; cell++) {
+            int row = cell / size, col = cell % size;
+            int lines = segmentsThrough(row, col, size, winLength);
+            int dist = Math.abs(2 * row - (size - 1)) + Math.abs(2 * col - (size - 1));
+            keyed[cell] = ((long) (Integer.MAX_VALUE - lines) << 32) | ((long) dist << 16) | cell;
+        }
+        Arrays.sort(keyed);
+        int[] order = new int[cells];
+        for (int i = 0; i < cells; i++) order[i] = (int) (keyed[i] & 0xFFFF);
+        return order;
+    }
+
+    private static int segmentsThrough(int row, int col, int size, int k) {
+        int total = 0;
+        int[][] dirs = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+        for (int[] d : dirs) {
+            for (int back = 0; back < k; back++) {
+                int r0 = row - d[0] * back, c0 = col - d[1] * back;
+                int r1 = r0 + d[0] * (k - 1), c1 = c0 + d[1] * (k - 1);
+                if (r0 >= 0 && r0 < size && c0 >= 0 && c0 < size && r1 >= 0 && r1 < size && c1 >= 0 && c1 < size) total++;
+            }
+        }
+        return total;
+    }
+
+    // Unpruned minimax over the same scoring, kept only to compare node counts against search().
+    public static SearchResult referenceMiniMax(Board board, int player) {
+        long[] counter = new long[2];   // nodes, deepest ply
+        int size = board.getSize();
+        int bestScore = Integer.MIN_VALUE, bestCell = -1;
+        for (int cell = 0; cell < size * size; cell++) {
+            if (board.getCell(cell / size, cell % size) != 0) continue;
+            board.makeMove(cell / size, cell % size, player);
+            int score = -plainNegamax(board, 3 - player, 1, counter);
+            board.undoMove(cell / size, cell % size);
+            if (score > bestScore) { bestScore = score; bestCell = cell; }
+        }
+        if (bestCell < 0) return null;
+        return new SearchResult(bestCell / size, bestCell % size, bestScore, counter[0], (int) counter[1]);
+    }
+
+    private static int plainNegamax(Board board, int player, int ply, long[] counter) {
+        counter[0]++;
+        if (ply > counter[1]) counter[1] = ply;
+        if (board.checkWin(3 - player)) return -(WIN - ply);
+        if (board.isFull()) return 0;
+        int size = board.getSize();
+        int best = Integer.MIN_VALUE;
+        for (int cell = 0; cell < size * size; cell++) {
+            if (board.getCell(cell / size, cell % size) != 0) continue;
+            board.makeMove(cell / size, cell % size, player);
+            best = Math.max(best, -plainNegamax(board, 3 - player, ply + 1, counter));
+            board.undoMove(cell / size, cell % size);
+        }
+        return best;
+    }
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int k = args.length > 1 ? Integer.parseInt(args[1]) : size;
+        Board board = new Board(size, k);
+        if (size * size <= 9) System.out.println("minimax:    " + referenceMiniMax(board, 1));
+        System.out.println("alpha-beta: " + new AlphaBetaSearch().search(board, 1));
+    }
+}
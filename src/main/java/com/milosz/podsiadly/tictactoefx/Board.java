@@ -1,42 +1,166 @@
 package com.milosz.podsiadly.tictactoefx;
 
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 public class Board {
-    private final int[][] board;
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    private final int size;
+    private final int winLength;
+    private final byte[] cells;
+    private final int[] history;
+    private int moveCount;
+
+    // boards of up to 64 cells also keep one bit mask per player, and every cell knows
+    // the winning masks that pass through it, so a win check is a few ANDs
+    private final long[] bits = new long[3];
+    private final long[][] cellMasks;
+
+    // the masks only depend on the geometry, so every board of a given size and k shares one set
+    private static final Map<Integer, long[][]> CELL_MASKS = new ConcurrentHashMap<>();
 
-    public Board() { board = new int[3][3]; }
+    public Board() { this(3, 3); }
+
+    public Board(int size, int winLength) {
+        if (size < 1 || size > 64) throw new IllegalArgumentException("Board size must be between 1 and 64.");
+        if (winLength < 1 || winLength > size) throw new IllegalArgumentException("Win length must be between 1 and " + size + ".");
+        this.size = size;
+        this.winLength = winLength;
+        this.cells = new byte[size * size];
+        this.history = new int[size * size];
+        this.cellMasks = size * size <= 64
+                ? CELL_MASKS.computeIfAbsent(size * 65 + winLength, key -> buildCellMasks(size, winLength)) : null;
+    }
+
+    private Board(Board other) {
+        size = other.size;
+        winLength = other.winLength;
+        cells = other.cells.clone();
+        history = other.history.clone();
+        moveCount = other.moveCount;
+        bits[1] = other.bits[1];
+        bits[2] = other.bits[2];
+        cellMasks = other.cellMasks;
+    }
+
+    public Board copy() { return new Board(this); }
 
     public boolean makeMove(int row, int col, int player) {
-        if (board[row][col] == 0) { board[row][col] = player; return true; }
+        checkBounds(row, col);
+        int cell = row * size + col;
+        if (cells[cell] == 0) { place(cell, player); return true; }
         return false;
     }
 
     public boolean isFull() {
-        for (int i=0;i<3;i++) for (int j=0;j<3;j++) if (board[i][j]==0) return false;
-        return true;
+        return moveCount == cells.length;
     }
 
+    // Only the lines through the player's most recent stone are examined: any earlier line
+    // would already have ended the game, so this is O(winLength) regardless of board size.
     public boolean checkWin(int player) {
-        for (int i=0;i<3;i++) if (board[i][0]==player&&board[i][1]==player&&board[i][2]==player) return true;
-        for (int i=0;i<3;i++) if (board[0][i]==player&&board[1][i]==player&&board[2][i]==player) return true;
-        if (board[0][0]==player&&board[1][1]==player&&board[2][2]==player) return true;
-        if (board[0][2]==player&&board[1][1]==player&&board[2][0]==player) return true;
+        for (int i = moveCount - 1; i >= 0; i--) {
+            int cell = history[i];
+            if (cells[cell] == player) return winsThrough(cell, player);
+        }
         return false;
     }
 
     public boolean isCellAvailable(int row, int col) {
-        if (row<0||row>=3||col<0||col>=3) throw new IllegalArgumentException("Invalid Input: (0-2)");
-        return board[row][col]==0;
+        if (row<0||row>=size||col<0||col>=size) throw new IllegalArgumentException("Invalid Input: (0-" + (size - 1) + ")");
+        return cells[row * size + col] == 0;
     }
 
-    public int getSize() { return board.length; }
+    public int getSize() { return size; }
+
+    public int getWinLength() { return winLength; }
+
+    public int getCell(int row, int col) { return cells[row * size + col]; }
+
+    public int getMoveCount() { return moveCount; }
+
+    // cell index (row * size + col) of the i-th stone played, oldest first
+    public int getMove(int i) { return history[i]; }
 
     public void undoMove(int row, int col) {
-        if (row<0||row>=3||col<0||col>=3) throw new IllegalArgumentException("Invalid input. Row and column must be between 0 and 2.");
-        board[row][col]=0;
+        checkBounds(row, col);
+        int cell = row * size + col;
+        if (cells[cell] == 0) return;
+        if (cellMasks != null) bits[cells[cell]] &= ~(1L << cell);
+        cells[cell] = 0;
+        int i = moveCount - 1;
+        while (history[i] != cell) i--;
+        System.arraycopy(history, i + 1, history, i, moveCount - 1 - i);
+        moveCount--;
     }
 
     public boolean markCell(int row, int col, int player) {
-        if (row<0||row>=3||col<0||col>=3) throw new IllegalArgumentException("Invalid input. Row and column must be between 0 and 2.");
-        if (board[row][col]!=0) return false; board[row][col]=player; return true;
+        checkBounds(row, col);
+        int cell = row * size + col;
+        if (cells[cell]!=0) return false; place(cell, player); return true;
+    }
+
+    private void place(int cell, int player) {
+        cells[cell] = (byte) player;
+        if (cellMasks != null) bits[player] |= 1L << cell;
+        history[moveCount++] = cell;
+    }
+
+    private void checkBounds(int row, int col) {
+        if (row<0||row>=size||col<0||col>=size)
+            throw new IllegalArgumentException("Invalid input. Row and column must be between 0 and " + (size - 1) + ".");
+    }
+
+    private boolean winsThrough(int cell, int player) {
+        if (cellMasks != null) {
+            long b = bits[player];
+            for (long mask : cellMasks[cell]) if ((b & mask) == mask) return true;
+            return false;
+        }
+        int row = cell / size, col = cell % size;
+        for (int[] d : DIRECTIONS) {
+            int run = 1 + count(row, col, d[0], d[1], player) + count(row, col, -d[0], -d[1], player);
+            if (run >= winLength) return true;
+        }
+        return false;
+    }
+
+    private int count(int row, int col, int dr, int dc, int player) {
+        int n = 0;
+        for (int r = row + dr, c = col + dc; n < winLength - 1 && r >= 0 && r < size && c >= 0 && c < size; r += dr, c += dc) {
+            if (cells[r * size + c] != player) break;
+            n++;
+        }
+        return n;
+    }
+
+    // every winLength-long segment on the board, as a bit mask
+    static long[] winMasks(int size, int winLength) {
+        long[] masks = new long[4 * size * size];
+        int n = 0;
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                for (int[] d : DIRECTIONS) {
+                    int endRow = row + d[0] * (winLength - 1), endCol = col + d[1] * (winLength - 1);
+                    if (endRow < 0 || endRow >= size || endCol < 0 || endCol >= size) continue;
+                    long mask = 0;
+                    for (int i = 0; i < winLength; i++) mask |= 1L << ((row + d[0] * i) * size + col + d[1] * i);
+                    masks[n++] = mask;
+                }
+            }
+        }
+        return Arrays.copyOf(masks, n);
+    }
+
+    private static long[][] buildCellMasks(int size, int winLength) {
+        long[] all = winMasks(size, winLength);
+        long[][] perCell = new long[size * size][];
+        for (int cell = 0; cell < perCell.length; cell++) {
+            long bit = 1L << cell;
+            perCell[cell] = Arrays.stream(all).filter(m -> (m & bit) != 0).toArray();
+        }
+        return perCell;
     }
 }
@@ -0,0 +1,28 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import javafx.scene.Node;
+
+// What the controller needs from a board on screen. Views read cell state from the Board itself;
+// the controller only tells them which cell changed.
+interface BoardView {
+
+    interface CellHandler { void clicked(int row, int col); }
+
+    Node getNode();
+
+    // a new game (and possibly a new board size): everything is redrawn from this board
+    void setBoard(Board board);
+
+    void cellChanged(int row, int col);
+
+    // while disabled, clicks are ignored
+    void setEnabled(boolean enabled);
+
+    void setOnCellClicked(CellHandler handler);
+
+    // the classic buttons for 3x3, the canvas for anything bigger (or always with -Dtictactoe.boardView=canvas)
+    static BoardView forSize(int size) {
+        if (size == 3 && !"canvas".equals(System.getProperty("tictactoe.boardView"))) return new ButtonBoardView();
+        return new CanvasBoardView();
+    }
+}
@@ -0,0 +1,77 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import javafx.geometry.HPos;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.Button;
+import javafx.scene.layout.ColumnConstraints;
+import javafx.scene.layout.GridPane;
+import javafx.scene.text.Font;
+
+// One styled Button per cell: the original look, meant for 3x3.
+class ButtonBoardView implements BoardView {
+    private static final String SYMBOLS = " XO";
+
+    private final GridPane grid = new GridPane();
+    private Button[][] cells = new Button[0][0];
+    private Board board;
+    private boolean enabled = true;
+    private CellHandler handler = (r, c) -> {};
+
+    ButtonBoardView() {
+        grid.setHgap(8);
+        grid.setVgap(8);
+        grid.setAlignment(Pos.CENTER);
+    }
+
+    @Override
+    public Node getNode() { return grid; }
+
+    @Override
+    public void setBoard(Board board) {
+        this.board = board;
+        int n = board.getSize();
+        if (cells.length != n) build(n);
+        for (int r = 0; r < n; r++) for (int c = 0; c < n; c++) cellChanged(r, c);
+    }
+
+    @Override
+    public void cellChanged(int row, int col) {
+        int v = board.getCell(row, col);
+        cells[row][col].setText(String.valueOf(SYMBOLS.charAt(v)));
+        cells[row][col].setDisable(!enabled || v != 0);
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        for (int r = 0; r < cells.length; r++) {
+            for (int c = 0; c < cells.length; c++) cells[r][c].setDisable(!enabled || board.getCell(r, c) != 0);
+        }
+    }
+
+    @Override
+    public void setOnCellClicked(CellHandler handler) { this.handler = handler; }
+
+    private void build(int n) {
+        ColumnConstraints wide = new ColumnConstraints();
+        wide.setHalignment(HPos.CENTER);
+        grid.getChildren().clear();
+        grid.getColumnConstraints().clear();
+        for (int i = 0; i < n; i++) grid.getColumnConstraints().add(wide);
+
+        cells = new Button[n][n];
+        for (int r = 0; r < n; r++) {
+            for (int c = 0; c < n; c++) {
+                Button b = new Button(" ");
+                b.getStyleClass().add("cell");
+                b.setMinSize(110, 110);
+                b.setFont(Font.font(36));
+                final int row = r, col = c;
+                b.setOnAction(e -> handler.clicked(row, col));
+                cells[r][c] = b;
+                grid.add(b, c, r);
+            }
+        }
+    }
+}
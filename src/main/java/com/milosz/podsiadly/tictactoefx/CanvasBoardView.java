@@ -0,0 +1,148 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.StrokeLineCap;
+
+import java.util.Arrays;
+
+// The whole board drawn on one Canvas, so the scene graph has a single node whatever the size.
+// Clicks map to cells by division. Changed cells are queued and repainted together once per
+// pulse; nothing else is redrawn. The canvas also marks the cell under the mouse and the last move.
+class CanvasBoardView implements BoardView {
+    static final double PIXELS = 360;
+
+    private static final Color EMPTY = Color.web("#3a3f44");
+    private static final Color TAKEN = Color.web("#2b2f33");
+    private static final Color HOVER = Color.web("#50565c");
+    private static final Color MARK = Color.web("#eaeaea");
+    private static final Color LAST = Color.web("#f0a030");
+
+    private final Canvas canvas = new Canvas(PIXELS, PIXELS);
+    private final GraphicsContext g = canvas.getGraphicsContext2D();
+    private Board board;
+    private int size;
+    private double cell, gap, arc;
+    private boolean enabled = true;
+    private CellHandler handler = (r, c) -> {};
+    private int hover = -1, last = -1;
+
+    private boolean[] dirty = new boolean[0];
+    private int[] dirtyList = new int[0];
+    private int dirtyCount;
+    private boolean repaintQueued;
+
+    CanvasBoardView() {
+        g.setLineCap(StrokeLineCap.ROUND);
+        canvas.setOnMouseClicked(this::onClick);
+        canvas.setOnMouseMoved(e -> setHover(enabled ? cellAt(e) : -1));
+        canvas.setOnMouseExited(e -> setHover(-1));
+    }
+
+    @Override
+    public Node getNode() { return canvas; }
+
+    @Override
+    public void setBoard(Board board) {
+        this.board = board;
+        if (board.getSize() != size) {
+            size = board.getSize();
+            cell = PIXELS / size;
+            gap = cell >= 24 ? Math.round(cell * 0.07) : 1;
+            arc = cell >= 24 ? cell * 0.15 : 0;
+            dirty = new boolean[size * size];
+            dirtyList = new int[size * size];
+        }
+        dirtyCount = 0;
+        Arrays.fill(dirty, false);
+        hover = -1;
+        last = lastMove();
+        g.clearRect(0, 0, PIXELS, PIXELS);
+        for (int i = 0; i < size * size; i++) paint(i);
+    }
+
+    @Override
+    public void cellChanged(int row, int col) {
+        markDirty(row * size + col);
+        int now = lastMove();
+        if (now != last) {
+            markDirty(last);
+            last = now;
+            markDirty(last);
+        }
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) setHover(-1);
+    }
+
+    @Override
+    public void setOnCellClicked(CellHandler handler) { this.handler = handler; }
+
+    private void onClick(MouseEvent e) {
+        int i = cellAt(e);
+        if (!enabled || i < 0) return;
+        handler.clicked(i / size, i % size);
+    }
+
+    private int cellAt(MouseEvent e) {
+        int col = (int) (e.getX() / cell), row = (int) (e.getY() / cell);
+        return row >= 0 && row < size && col >= 0 && col < size ? row * size + col : -1;
+    }
+
+    private void setHover(int i) {
+        if (i == hover) return;
+        markDirty(hover);
+        hover = i;
+        markDirty(hover);
+    }
+
+    private int lastMove() {
+        return board == null || board.getMoveCount() == 0 ? -1 : board.getMove(board.getMoveCount() - 1);
+    }
+
+    private void markDirty(int i) {
+        if (i < 0 || dirty[i]) return;
+        dirty[i] = true;
+        dirtyList[dirtyCount++] = i;
+        if (!repaintQueued) {
+            repaintQueued = true;
+            Platform.runLater(this::repaintDirty);
+        }
+    }
+
+    private void repaintDirty() {
+        repaintQueued = false;
+        for (int k = 0; k < dirtyCount; k++) {
+            dirty[dirtyList[k]] = false;
+            paint(dirtyList[k]);
+        }
+        dirtyCount = 0;
+    }
+
+    private void paint(int i) {
+        int row = i / size, col = i % size;
+        int v = board.getCell(row, col);
+        double x = col * cell, y = row * cell;
+        g.clearRect(x, y, cell, cell);
+        g.setFill(v != 0 ? TAKEN : i == hover ? HOVER : EMPTY);
+        g.fillRoundRect(x + gap / 2, y + gap / 2, cell - gap, cell - gap, arc, arc);
+        if (v == 0) return;
+
+        double pad = cell * 0.28;
+        g.setStroke(i == last ? LAST : MARK);
+        g.setLineWidth(Math.max(1, cell * 0.08));
+        if (v == 1) {
+            g.strokeLine(x + pad, y + pad, x + cell - pad, y + cell - pad);
+            g.strokeLine(x + cell - pad, y + pad, x + pad, y + cell - pad);
+        } else {
+            g.strokeOval(x + pad, y + pad, cell - 2 * pad, cell - 2 * pad);
+        }
+    }
+}
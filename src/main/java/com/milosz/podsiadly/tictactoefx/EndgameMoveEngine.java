@@ -0,0 +1,61 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import java.util.random.RandomGenerator;
+
+// Perfect play by lookup: probes the EndgameTable for every free cell and plays one of the best,
+// at random among equals. Quickest win, slowest loss. No search, so an answer costs one probe per cell.
+public class EndgameMoveEngine implements MoveEngine {
+    private final EndgameTable table;
+    private final RandomGenerator rng;
+    private long lastNodes;
+    private int lastDepth;
+
+    public EndgameMoveEngine(EndgameTable table, RandomGenerator rng) {
+        this.table = table;
+        this.rng = rng;
+    }
+
+    // null when the table is for another shape, it isn't player's turn, or the game is over
+    @Override
+    public int[] chooseMove(Board board, int player) {
+        lastNodes = lastDepth = 0;
+        if (!table.supports(board)) return null;
+        int size = board.getSize(), cells = size * size;
+        long x = 0, o = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            int p = board.getCell(cell / size, cell % size);
+            if (p == 1) x |= 1L << cell;
+            else if (p == 2) o |= 1L << cell;
+        }
+        int n = Long.bitCount(x | o);
+        if (player != (n % 2 == 0 ? 1 : 2) || n == cells) return null;
+        byte here = table.get(table.index(x, o));
+        if (here == EndgameTable.LOST) return null;   // the opponent already has a line
+
+        int best = Integer.MIN_VALUE, ties = 0, choice = -1;
+        for (int cell = 0; cell < cells; cell++) {
+            long bit = 1L << cell;
+            if (((x | o) & bit) != 0) continue;
+            byte child = player == 1 ? table.get(table.index(x | bit, o)) : table.get(table.index(x, o | bit));
+            lastNodes++;
+            int score = EndgameTable.moveScore(child);
+            if (score > best) {
+                best = score;
+                ties = 1;
+                choice = cell;
+            } else if (score == best && rng.nextInt(++ties) == 0) {
+                choice = cell;   // reservoir pick among equal moves
+            }
+        }
+        lastDepth = Math.abs(EndgameTable.toValue(best));
+        return new int[]{choice / size, choice % size};
+    }
+
+    boolean supports(Board board) { return table.supports(board); }
+
+    @Override
+    public long lastNodes() { return lastNodes; }
+
+    @Override
+    public int lastDepth() { return lastDepth; }
+}
@@ -0,0 +1,206 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Perfect-play values for every position of one (size, k) game up to 64 cells, written by
+// EndgameSolver and read through memory maps, so nothing but the index arithmetic is on the heap.
+//
+// Positions are grouped into tiers by stone count n. With x = ceil(n/2) X stones a tier holds
+// C(cells, n) * C(n, x) entries, and a position's index within its tier is
+//   rank(occupied cells) * C(n, x) + rank(which of the occupied cells hold X)
+// where rank is the colexicographic rank of a subset. Every index is a legal stone count, so
+// the table is dense.
+//
+// Layout (big-endian): int magic, byte version, byte size, byte winLength, byte reserved, then
+// cells + 2 longs: the file offset of each tier and the end of the data, then one signed byte per
+// position for the side to move: +d wins in d plies, -d loses in d plies, 0 draw, LOST when the
+// opponent already has a line. Positions that can't arise (the side to move has a line) hold 0.
+public class EndgameTable implements AutoCloseable {
+    static final int MAGIC = 0x54545445;   // "TTTE"
+    static final int VERSION = 1;
+    public static final byte LOST = Byte.MIN_VALUE;
+    // the largest board whose table is indexable by a long: 6x6 has 2.4e16 positions, 7x7 3.3e22
+    public static final int MAX_SIZE = 6;
+
+    private static final int CHUNK_BITS = 30;   // maps of 1 GB: a tier of a 5x5 table is ~26 GB
+    private static final long[][] BINOMIAL = new long[65][65];
+    private static final Map<Integer, EndgameTable> OPEN = new ConcurrentHashMap<>();
+
+    static {
+        for (int n = 0; n <= 64; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int k = 1; k <= n; k++) BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + BINOMIAL[n - 1][k];
+        }
+    }
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] chunks;
+    private final int size, winLength, cells;
+    private final long[] tierStart;
+
+    private EndgameTable(FileChannel channel, boolean writable) throws IOException {
+        this.channel = channel;
+        ByteBuffer header = ByteBuffer.allocate(8);
+        channel.read(header, 0);
+        header.flip();
+        if (header.remaining() < 8 || header.getInt(0) != MAGIC || header.get(4) != VERSION) throw new IOException("Not an endgame table.");
+        size = header.get(5);
+        winLength = header.get(6);
+        cells = size * size;
+        ByteBuffer offsets = ByteBuffer.allocate(8 * (cells + 2));
+        channel.read(offsets, 8);
+        offsets.flip();
+        tierStart = new long[cells + 2];
+        for (int n = 0; n < tierStart.length; n++) tierStart[n] = offsets.getLong();
+        long length = tierStart[cells + 1];
+        if (channel.size() < length) throw new IOException("Truncated endgame table.");
+        chunks = new MappedByteBuffer[(int) ((length + (1L << CHUNK_BITS) - 1) >>> CHUNK_BITS)];
+        FileChannel.MapMode mode = writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+        for (int i = 0; i < chunks.length; i++) {
+            long from = (long) i << CHUNK_BITS;
+            chunks[i] = channel.map(mode, from, Math.min(1L << CHUNK_BITS, length - from));
+        }
+    }
+
+    public static EndgameTable open(Path file) throws IOException {
+        return new EndgameTable(FileChannel.open(file, StandardOpenOption.READ), false);
+    }
+
+    // lays out an empty (all-draw) table of the right size for the solver to fill in
+    static EndgameTable create(Path file, int size, int winLength) throws IOException {
+        if (size > MAX_SIZE) throw new IllegalArgumentException("No endgame tables past " + MAX_SIZE + "x" + MAX_SIZE + ".");
+        int cells = size * size;
+        ByteBuffer header = ByteBuffer.allocate(8 + 8 * (cells + 2));
+        header.putInt(MAGIC).put((byte) VERSION).put((byte) size).put((byte) winLength).put((byte) 0);
+        long offset = header.capacity();
+        for (int n = 0; n <= cells; n++) {
+            header.putLong(offset);
+            offset = Math.addExact(offset, tierSize(cells, n));
+        }
+        header.putLong(offset).flip();
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ch.write(header, 0);
+        ch.write(ByteBuffer.allocate(1), offset - 1);   // sparse until the solver writes it
+        return new EndgameTable(ch, true);
+    }
+
+    // the table for a board shape from the endgame directory, opened once; null if there is none
+    public static EndgameTable forShape(int size, int winLength) {
+        // a missing table isn't remembered, so one solved while the app runs is picked up on the next move
+        return OPEN.computeIfAbsent(size * 65 + winLength, key -> {
+            Path file = directory().resolve(fileName(size, winLength));
+            if (!Files.isReadable(file)) return null;
+            try {
+                return open(file);
+            } catch (IOException e) {
+                return null;
+            }
+        });
+    }
+
+    // -Dtictactoe.endgameDir, else ~/.tictactoefx/endgame
+    public static Path directory() {
+        String dir = System.getProperty("tictactoe.endgameDir");
+        return dir != null ? Paths.get(dir) : Paths.get(System.getProperty("user.home"), ".tictactoefx", "endgame");
+    }
+
+    public static String fileName(int size, int winLength) { return "endgame-" + size + "x" + size + "-k" + winLength + ".tbl"; }
+
+    public int getSize() { return size; }
+
+    public int getWinLength() { return winLength; }
+
+    public long entries() { return tierStart[cells + 1] - tierStart[0]; }
+
+    public long fileBytes() { return tierStart[cells + 1]; }
+
+    public boolean supports(Board board) { return board.getSize() == size && board.getWinLength() == winLength; }
+
+    // value of the position for the side to move, whose turn follows from the stone count
+    public int value(Board board) {
+        long x = 0, o = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            int p = board.getCell(cell / size, cell % size);
+            if (p == 1) x |= 1L << cell;
+            else if (p == 2) o |= 1L << cell;
+        }
+        return get(index(x, o));
+    }
+
+    // position index across all tiers, from the X and O cell masks
+    long index(long x, long o) {
+        long occupied = x | o;
+        int n = Long.bitCount(occupied);
+        return tierStart[n] + tierIndex(occupied, x, n);
+    }
+
+    byte get(long index) { return chunks[(int) (index >>> CHUNK_BITS)].get((int) (index & ((1L << CHUNK_BITS) - 1))); }
+
+    void put(long index, byte value) { chunks[(int) (index >>> CHUNK_BITS)].put((int) (index & ((1L << CHUNK_BITS) - 1)), value); }
+
+    long tierStart(int n) { return tierStart[n]; }
+
+    void force() {
+        for (MappedByteBuffer chunk : chunks) chunk.force();
+    }
+
+    @Override
+    public void close() throws IOException { channel.close(); }
+
+    // Score for the mover of a move into a position worth child to the opponent: a quicker win or a
+    // slower loss scores higher, any win beats a draw, a draw beats any loss.
+    static int moveScore(byte child) {
+        if (child == LOST) return 1000 - 1;
+        if (child > 0) return -1000 + child + 1;
+        if (child < 0) return 1000 + child - 1;
+        return 0;
+    }
+
+    static byte toValue(int score) {
+        return (byte) (score > 0 ? 1000 - score : score < 0 ? -(1000 + score) : 0);
+    }
+
+    // ArithmeticException rather than a wrapped count on boards past MAX_SIZE
+    static long tierSize(int cells, int n) { return Math.multiplyExact(BINOMIAL[cells][n], BINOMIAL[n][(n + 1) / 2]); }
+
+    static long positions(int cells) {
+        long total = 0;
+        for (int n = 0; n <= cells; n++) total = Math.addExact(total, tierSize(cells, n));
+        return total;
+    }
+
+    static long binomial(int n, int k) { return k < 0 || k > n ? 0 : BINOMIAL[n][k]; }
+
+    static long tierIndex(long occupied, long x, int n) {
+        return rank(occupied) * BINOMIAL[n][(n + 1) / 2] + rank(Long.compress(x, occupied));
+    }
+
+    // colexicographic rank of a subset: sum of C(element, i + 1) over its elements in ascending order
+    static long rank(long set) {
+        long r = 0;
+        for (int i = 1; set != 0; i++, set &= set - 1) r += BINOMIAL[Long.numberOfTrailingZeros(set)][i];
+        return r;
+    }
+
+    // the k-element subset of colexicographic rank r
+    static long unrank(long r, int k) {
+        long set = 0;
+        for (int i = k; i >= 1; i--) {
+            int e = i - 1;
+            while (BINOMIAL[e + 1][i] <= r) e++;
+            r -= BINOMIAL[e][i];
+            set |= 1L << e;
+        }
+        return set;
+    }
+}
@@ -0,0 +1,92 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.random.RandomGenerator;
+
+// Runs the selected level's engine on made-up positions on a low-priority background thread, so
+// the JIT has compiled its search loops by the time the computer makes its first real move,
+// instead of that move starting in the interpreter. It plays a separate engine instance, closed
+// afterwards: compiled code is shared, the search tables are not. Each (level, shape) is warmed
+// once per session.
+class EngineWarmup {
+    private static final long BUDGET_NANOS = 1_500_000_000L;
+    private static final double BUDGET_SCALE = 0.05;   // Monte Carlo moves get a twentieth of their usual time
+    private static final int MAX_EMPTY = 9;              // exact searches on small boards stay short
+
+    private final ExecutorService thread = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "engine-warmup");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+    private final Set<Integer> warmed = ConcurrentHashMap.newKeySet();
+    private final int searchThreads;
+    private Future<?> task;
+
+    EngineWarmup(int searchThreads) { this.searchThreads = searchThreads; }
+
+    synchronized void start(int level, int size, int winLength) {
+        if (!MoveEngines.exists(level) || !warmed.add((level * 65 + size) * 65 + winLength)) return;
+        stop();
+        task = thread.submit(() -> {
+            Random rng = new Random();
+            MoveEngine engine = MoveEngines.create(level, rng, searchThreads, BUDGET_SCALE);
+            try {
+                warm(engine, size, winLength, BUDGET_NANOS, rng);
+            } finally {
+                engine.close();   // its pools and node arrays are not needed once the JIT has the code
+            }
+        });
+    }
+
+    // the real search gets the cores; a cut-short warm-up isn't repeated
+    synchronized void stop() {
+        if (task != null) task.cancel(true);
+        task = null;
+    }
+
+    void shutdown() {
+        stop();
+        thread.shutdownNow();
+    }
+
+    // Asks engine for moves in random live positions of the shape until the budget runs out or the
+    // thread is interrupted; returns the number of moves it made.
+    static long warm(MoveEngine engine, int size, int winLength, long budgetNanos, RandomGenerator rng) {
+        long deadline = System.nanoTime() + budgetNanos, moves = 0;
+        int cells = size * size;
+        int[] free = new int[cells];
+        while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+            Board board = new Board(size, winLength);
+            // small boards are searched to the end, so fill them up to a few empty cells first
+            int stones = cells <= PerfectPlayEngine.MAX_SOLVED_CELLS
+                    ? Math.max(0, cells - MAX_EMPTY) + rng.nextInt(Math.min(cells, MAX_EMPTY) - 1)
+                    : rng.nextInt(cells / 2);
+            int player = 1;
+            for (int i = 0; i < stones; i++) {
+                int n = 0;
+                for (int cell = 0; cell < cells; cell++) if (board.getCell(cell / size, cell % size) == 0) free[n++] = cell;
+                int cell = free[rng.nextInt(n)];
+                board.makeMove(cell / size, cell % size, player);
+                if (board.checkWin(player)) {
+                    board.undoMove(cell / size, cell % size);
+                    break;
+                }
+                player = 3 - player;
+            }
+            try {
+                engine.chooseMove(board, player);
+            } catch (CancellationException e) {
+                break;
+            }
+            moves++;
+        }
+        return moves;
+    }
+}
@@ -0,0 +1,59 @@
+package com.milosz.podsiadly.tictactoefx;
+
+// The rules of one game, free of any UI: whose turn it is, legality, and how the game ended.
+public class GameEngine {
+    public enum Outcome { CONTINUE, WIN, DRAW }
+
+    private final int size, winLength;
+    private Board board;
+    private int currentPlayer;
+    private Outcome outcome;
+
+    public GameEngine() { this(3, 3); }
+
+    public GameEngine(int size, int winLength) {
+        this.size = size;
+        this.winLength = winLength;
+        start();
+    }
+
+    public void reset() { start(); }
+
+    // private, so the constructor never runs a subclass's reset() on a half-built engine
+    private void start() {
+        board = new Board(size, winLength);
+        currentPlayer = 1;
+        outcome = Outcome.CONTINUE;
+    }
+
+    public Board getBoard() { return board; }
+
+    public int getCurrentPlayer() { return currentPlayer; }
+
+    public boolean isOver() { return outcome != Outcome.CONTINUE; }
+
+    public Outcome getOutcome() { return outcome; }
+
+    // player number of the winner, 0 while the game runs or after a draw
+    public int getWinner() { return outcome == Outcome.WIN ? currentPlayer : 0; }
+
+    public boolean isLegal(int row, int col) {
+        return !isOver() && row >= 0 && row < size && col >= 0 && col < size && board.isCellAvailable(row, col);
+    }
+
+    // Plays for the current player. After WIN the winner stays current; after CONTINUE the turn has passed.
+    public Outcome play(int row, int col) {
+        if (isOver()) throw new IllegalStateException("The game is already over.");
+        if (!board.markCell(row, col, currentPlayer)) throw new IllegalArgumentException("Cell is already taken.");
+        if (board.checkWin(currentPlayer)) outcome = Outcome.WIN;
+        else if (board.isFull()) outcome = Outcome.DRAW;
+        else currentPlayer = 3 - currentPlayer;
+        return outcome;
+    }
+
+    // Takes back the last move, which must not have ended the game, and returns the turn to its player.
+    public void undo(int row, int col) {
+        board.undoMove(row, col);
+        currentPlayer = 3 - currentPlayer;
+    }
+}
@@ -0,0 +1,129 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import jdk.jfr.Category;
+import jdk.jfr.Configuration;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.Timespan;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+// Flight Recorder events for the stages a player can feel, so a reported stutter can be lined up
+// with what the app was doing (JDK Mission Control, or `jfr print --categories TicTacToeFX`).
+// With no recording running an event costs a field check, so they are always compiled in.
+//
+// --jfr on the launcher starts a continuous recording of these plus the JDK's low-overhead
+// "default" settings, kept to the last MAX_AGE and at most MAX_SIZE on disk. F4 in the window, or
+// `jcmd <pid> JFR.dump name=tictactoefx`, writes out what it holds.
+public final class GameEvents {
+    public static final String RECORDING_NAME = "tictactoefx";
+    private static final long MAX_SIZE = 64L << 20;
+    private static final Duration MAX_AGE = Duration.ofMinutes(30);
+
+    private static Recording recording;
+
+    private GameEvents() {}
+
+    @Name("tictactoefx.CellClick")
+    @Label("Cell Click")
+    @Category({"TicTacToeFX", "UI"})
+    @Description("A human move, from the click handler to the end of its bookkeeping on the FX thread")
+    static final class CellClick extends Event {
+        @Label("Row") int row;
+        @Label("Column") int col;
+        @Label("Accepted") @Description("False when the click was ignored: game over, computer thinking or cell taken") boolean accepted;
+    }
+
+    @Name("tictactoefx.ClickToRender")
+    @Label("Click To Board Updated")
+    @Category({"TicTacToeFX", "UI"})
+    @Description("From a cell click to the end of the first pulse that lays out the new stone")
+    static final class ClickToRender extends Event {
+        @Label("Row") int row;
+        @Label("Column") int col;
+        @Label("Pulses") @Description("FX pulses that ran before the board was laid out") int pulses;
+    }
+
+    @Name("tictactoefx.ComputerMove")
+    @Label("Computer Move")
+    @Category({"TicTacToeFX", "AI"})
+    static final class ComputerMove extends Event {
+        @Label("Level") int level;
+        @Label("Board Size") int size;
+        @Label("Nodes") long nodes;
+        @Label("Depth") int depth;
+        @Label("Pondered") @Description("Answered from the search made on the human's time") boolean pondered;
+        @Label("Search Time") @Timespan(Timespan.NANOSECONDS) long searchNanos;
+    }
+
+    @Name("tictactoefx.ScoreSave")
+    @Label("Score Save")
+    @Category({"TicTacToeFX", "Storage"})
+    @Description("One batch of result rows written to the profile store")
+    static final class ScoreSave extends Event {
+        @Label("Rows Updated") int updated;
+        @Label("Rows Inserted") @Description("New rows cost a rewrite of the whole file") int inserted;
+    }
+
+    @Name("tictactoefx.EndGameAlert")
+    @Label("End Game Alert")
+    @Category({"TicTacToeFX", "UI"})
+    @Description("From building the game-over alert to it being on screen")
+    static final class EndGameAlert extends Event {
+        @Label("Message") String message;
+    }
+
+    @Name("tictactoefx.SetupDialog")
+    @Label("Setup Dialog")
+    @Category({"TicTacToeFX", "UI"})
+    @Description("The setup dialog, from opening to closing")
+    static final class SetupDialog extends Event {
+        @Label("Applied") @Description("False when the dialog was cancelled") boolean applied;
+        @Label("Open Time") @Description("From building the dialog to it being on screen") @Timespan(Timespan.NANOSECONDS) long openNanos;
+    }
+
+    // starts the continuous recording; false (with the reason on stderr) if JFR isn't available
+    public static synchronized boolean startRecording() {
+        if (recording != null) return true;
+        try {
+            Recording r = new Recording(Configuration.getConfiguration("default"));
+            r.setName(RECORDING_NAME);
+            r.setToDisk(true);
+            r.setMaxSize(MAX_SIZE);
+            r.setMaxAge(MAX_AGE);
+            r.start();
+            recording = r;
+            return true;
+        } catch (IOException | ParseException | IllegalStateException | SecurityException e) {
+            System.err.println("Flight recording not started: " + e);
+            return false;
+        }
+    }
+
+    // Writes what the recording holds to ~/.tictactoefx/recordings and returns the file, or null
+    // when no recording is running. The recording carries on.
+    public static synchronized Path dump() throws IOException {
+        if (recording == null || recording.getState() != RecordingState.RUNNING) return null;
+        Path dir = Paths.get(System.getProperty("user.home"), ".tictactoefx", "recordings");
+        Files.createDirectories(dir);
+        Path file = dir.resolve("tictactoefx-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".jfr");
+        recording.dump(file);
+        return file;
+    }
+
+    public static synchronized void stopRecording() {
+        if (recording != null) recording.close();
+        recording = null;
+    }
+}
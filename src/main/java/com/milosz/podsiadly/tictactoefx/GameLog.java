@@ -0,0 +1,563 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+// Append-only binary log of every finished game, kept next to the player profiles.
+//
+// Layout (big-endian): int magic, byte version, 3 reserved bytes, then records of
+//   u16  length of the rest of the record
+//   long end time, epoch millis
+//   byte flags: bit 0 vs computer, bits 1-3 difficulty, bits 4-5 result (0 draw, 1 X won, 2 O won, 3 reset),
+//               bits 6-7 record version
+//   byte size, byte winLength, u16 move count
+//   u8 length + UTF-8 name of X, the same for O
+//   the moves as cell indices, ceil(log2(size^2)) bits each, LSB first (4 bits per move on 3x3)
+// A "reset" record marks where the user cleared the scores of the matchup on screen, so the
+// per-matchup counters can be rebuilt from the log. Since record version 1 it names that matchup
+// like a game record does (names, vs computer, difficulty); a version 0 reset cleared every
+// score. A torn record at the tail (crash mid-append) is ignored by readers and cut off when the
+// log is next opened for appending.
+public class GameLog implements AutoCloseable {
+    public static final String FILE = "games.log";
+    public static final int DRAW = 0, X_WON = 1, O_WON = 2, RESET = 3;
+    static final int MAGIC = 0x5454544C;   // "TTTL"
+    static final int VERSION = 1;
+    static final int RECORD_VERSION = 1;
+    static final int HEADER = 8;
+    static final int MIN_RECORD = 2 + 8 + 1 + 2 + 2 + 1 + 1;   // a reset: no names, no moves
+    public static final int MAX_DIFFICULTY = 7;   // bits 1-3 of the flags
+    private static final long WINDOW = 1 << 26;   // map at most 64 MB at a time
+
+    private final Path file;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "game-log-writer");
+        t.setDaemon(true);
+        return t;
+    });
+    private volatile Consumer<IOException> errorHandler = e -> {};
+    private FileChannel channel;
+
+    public GameLog() { this(Paths.get(System.getProperty("user.home"), ".tictactoefx")); }
+
+    public GameLog(Path dir) { this.file = dir.resolve(FILE); }
+
+    public Path getFile() { return file; }
+
+    public void setErrorHandler(Consumer<IOException> handler) {
+        this.errorHandler = handler == null ? e -> {} : handler;
+    }
+
+    // Encodes on the caller's thread (the board may change right after) and appends in the background.
+    public void append(Board board, int result, boolean vsComputer, int difficulty, String nameX, String nameO) {
+        submit(encode(System.currentTimeMillis(), board, result, vsComputer, difficulty, nameX, nameO));
+    }
+
+    // the matchup as the game records name it: player 1 is X
+    public void appendReset(String nameX, String nameO, boolean vsComputer, int difficulty) {
+        submit(encode(System.currentTimeMillis(), null, RESET, vsComputer, difficulty, nameX, nameO));
+    }
+
+    // blocks until everything appended so far has been written
+    public void flush() {
+        try {
+            writer.submit(() -> {}).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RejectedExecutionException ignored) {
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+        writer.shutdown();
+        synchronized (this) {
+            try {
+                if (channel != null) channel.close();
+            } catch (IOException ignored) {
+            }
+            channel = null;
+        }
+    }
+
+    private void submit(ByteBuffer record) {
+        try {
+            writer.execute(() -> write(record));
+        } catch (RejectedExecutionException ignored) {
+            // closed: the app is on its way out
+        }
+    }
+
+    private synchronized void write(ByteBuffer record) {
+        try {
+            if (channel == null) channel = open();
+            while (record.hasRemaining()) channel.write(record);
+        } catch (IOException e) {
+            errorHandler.accept(e);
+        }
+    }
+
+    // Opens the log positioned at its end. A torn record left by a crash is cut off first: appended
+    // behind it, every later record would be read from the torn one's length and lost to readers.
+    private FileChannel open() throws IOException {
+        Files.createDirectories(file.getParent());
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long size = ch.size();
+            if (size < HEADER) {
+                // new, or the crash came while the header was written
+                ch.truncate(0);
+                ByteBuffer header = ByteBuffer.allocate(HEADER).putInt(MAGIC).put((byte) VERSION);
+                header.clear();
+                while (header.hasRemaining()) ch.write(header, header.position());
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(HEADER);
+                while (header.hasRemaining()) ch.read(header, header.position());
+                if (header.getInt(0) != MAGIC || header.get(4) != VERSION) throw new IOException("Not a game log: " + file);
+                long end = walk(ch, size, null);
+                if (end < size) {
+                    ch.truncate(end);
+                    ch.force(false);
+                }
+            }
+            ch.position(ch.size());
+            return ch;
+        } catch (IOException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    static ByteBuffer encode(long time, Board board, int result, boolean vsComputer, int difficulty, String nameX, String nameO) {
+        byte[] x = name(nameX), o = name(nameO);
+        int size = board == null ? 0 : board.getSize();
+        int moves = board == null ? 0 : board.getMoveCount();
+        int bits = bitsPerMove(size);
+        int length = 8 + 1 + 2 + 2 + 1 + x.length + 1 + o.length + (moves * bits + 7) / 8;
+        ByteBuffer buf = ByteBuffer.allocate(2 + length);
+        buf.putShort((short) length).putLong(time);
+        buf.put((byte) ((vsComputer ? 1 : 0) | (difficulty & MAX_DIFFICULTY) << 1 | (result & 3) << 4 | RECORD_VERSION << 6));
+        buf.put((byte) size).put((byte) (board == null ? 0 : board.getWinLength())).putShort((short) moves);
+        buf.put((byte) x.length).put(x).put((byte) o.length).put(o);
+        long acc = 0;
+        int filled = 0;
+        for (int i = 0; i < moves; i++) {
+            acc |= (long) board.getMove(i) << filled;
+            filled += bits;
+            while (filled >= 8) { buf.put((byte) acc); acc >>>= 8; filled -= 8; }
+        }
+        if (filled > 0) buf.put((byte) acc);
+        return buf.flip();
+    }
+
+    private static byte[] name(String s) {
+        byte[] b = (s == null ? "" : s).getBytes(StandardCharsets.UTF_8);
+        return b.length <= 255 ? b : Arrays.copyOf(b, 255);
+    }
+
+    static int bitsPerMove(int size) { return size <= 1 ? 1 : 32 - Integer.numberOfLeadingZeros(size * size - 1); }
+
+    // A view of the record under the reader's cursor. It reads straight from the mapped file and
+    // is reused for every record, so scanning allocates nothing; don't keep it past the callback.
+    public static final class Record {
+        private ByteBuffer buf;
+        private int at, moveStart, bits;
+
+        private Record() {}
+
+        private void moveTo(ByteBuffer buf, int at) {
+            this.buf = buf;
+            this.at = at;
+            int nameX = buf.get(at + 15) & 0xFF;
+            int nameO = buf.get(at + 16 + nameX) & 0xFF;
+            this.moveStart = at + 17 + nameX + nameO;
+            this.bits = bitsPerMove(getSize());
+        }
+
+        public long getTime() { return buf.getLong(at + 2); }
+
+        public boolean isVsComputer() { return (buf.get(at + 10) & 1) != 0; }
+
+        public int getDifficulty() { return buf.get(at + 10) >> 1 & MAX_DIFFICULTY; }
+
+        // DRAW, X_WON, O_WON or RESET
+        public int getResult() { return buf.get(at + 10) >> 4 & 3; }
+
+        // 0 for records written before resets named their matchup
+        public int getVersion() { return buf.get(at + 10) >> 6 & 3; }
+
+        public int getSize() { return buf.get(at + 11) & 0xFF; }
+
+        public int getWinLength() { return buf.get(at + 12) & 0xFF; }
+
+        public int getMoveCount() { return buf.getShort(at + 13) & 0xFFFF; }
+
+        // cell index (row * size + col) of the i-th move; X made the even ones
+        public int getMove(int i) {
+            int bit = i * bits, pos = moveStart + (bit >>> 3);
+            int word = buf.get(pos) & 0xFF;
+            if ((bit & 7) + bits > 8) word |= (buf.get(pos + 1) & 0xFF) << 8;
+            if ((bit & 7) + bits > 16) word |= (buf.get(pos + 2) & 0xFF) << 16;
+            return (word >>> (bit & 7)) & ((1 << bits) - 1);
+        }
+
+        public String getNameX() { return string(at + 16, buf.get(at + 15) & 0xFF); }
+
+        public String getNameO() {
+            int nameX = buf.get(at + 15) & 0xFF;
+            return string(at + 17 + nameX, buf.get(at + 16 + nameX) & 0xFF);
+        }
+
+        // where the names' UTF-8 bytes sit in buffer(), for reading them without building Strings
+        int nameXStart() { return at + 16; }
+
+        int nameXLength() { return buf.get(at + 15) & 0xFF; }
+
+        int nameOStart() { return at + 17 + nameXLength(); }
+
+        int nameOLength() { return buf.get(at + 16 + nameXLength()) & 0xFF; }
+
+        ByteBuffer buffer() { return buf; }
+
+        private String string(int from, int length) {
+            byte[] b = new byte[length];
+            buf.get(from, b);
+            return new String(b, StandardCharsets.UTF_8);
+        }
+    }
+
+    // Streams every complete record of the file through the visitor, mapping it a window at a time.
+    public static void scan(Path file, Consumer<Record> visitor) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < HEADER) return;
+            MappedByteBuffer head = ch.map(FileChannel.MapMode.READ_ONLY, 0, HEADER);
+            if (head.getInt(0) != MAGIC || head.get(4) != VERSION) throw new IOException("Not a game log: " + file);
+
+            walk(ch, size, visitor);
+        }
+    }
+
+    // Passes every complete record to the visitor, if any; returns where the last one ends.
+    private static long walk(FileChannel ch, long size, Consumer<Record> visitor) throws IOException {
+        Record record = visitor == null ? null : new Record();
+        long pos = HEADER;
+        while (pos < size) {
+            long length = Math.min(WINDOW, size - pos);
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, pos, length);
+            int at = 0;
+            while (at + 2 <= length) {
+                int recordLength = buf.getShort(at) & 0xFFFF;
+                int end = at + 2 + recordLength;
+                // too short to be a record: zeroes or garbage after a crash, so nothing past it can be trusted
+                if (end > length || 2 + recordLength < MIN_RECORD) break;
+                if (visitor != null) {
+                    record.moveTo(buf, at);
+                    visitor.accept(record);
+                }
+                at = end;
+            }
+            if (at == 0) break;   // torn record at the tail
+            pos += at;
+        }
+        return pos;
+    }
+
+    // One-pass aggregate over a log. Per-opening results and AI loss positions are tracked for
+    // one board shape (3x3 by default); game counts, lengths and the score counters cover all.
+    public static final class Stats implements Consumer<Record> {
+        private final int size, winLength;
+        private final long[] pow3;
+        public long games, moves, resets;
+        public final long[][] openings;   // per first-move cell: draws, X wins, O wins
+        // per-mode counters: the sums over the matchups of their games since their last reset
+        public int pvpXWins, pvpOWins, pvpDraws, pvcPlayerWins, pvcComputerWins, pvcDraws;
+        // per matchup since its last reset: wins of its first and second player by name, draws, and
+        // the same wins by side for taking them back out of the per-mode counters on a reset
+        private static final int FIRST = 0, SECOND = 1, DRAWS = 2, X = 3, O = 4;
+        private final Matchups matchups = new Matchups();
+        // base-3 position key -> count, of positions the computer had just moved into when it lost
+        private long[] lossKeys = new long[64];
+        private int[] lossCounts = new int[64];
+        private int lossEntries;
+
+        public Stats() { this(3, 3); }
+
+        public Stats(int size, int winLength) {
+            this.size = size;
+            this.winLength = winLength;
+            this.openings = new long[size * size][3];
+            // position keys fit a long up to 39 cells; bigger boards skip the loss positions
+            this.pow3 = size * size <= 39 ? new long[size * size] : null;
+            if (pow3 != null) for (int i = 0; i < pow3.length; i++) pow3[i] = i == 0 ? 1 : pow3[i - 1] * 3;
+        }
+
+        @Override
+        public void accept(Record r) {
+            int result = r.getResult();
+            if (result == RESET) {
+                resets++;
+                if (r.getVersion() == 0) {
+                    matchups.clear();
+                    pvpXWins = pvpOWins = pvpDraws = pvcPlayerWins = pvcComputerWins = pvcDraws = 0;
+                } else {
+                    int[] m = matchups.find(r, false);
+                    if (m != null) {
+                        uncount(r.isVsComputer(), m);
+                        Arrays.fill(m, 0);
+                    }
+                }
+                return;
+            }
+            games++;
+            int n = r.getMoveCount();
+            moves += n;
+            int[] m = matchups.find(r, true);
+            if (result == DRAW) {
+                m[DRAWS]++;
+            } else {
+                // by name: FIRST is nameX unless the pair is stored the other way round
+                boolean xFirst = r.isVsComputer() || !matchups.swapped;
+                m[result == X_WON == xFirst ? FIRST : SECOND]++;
+                m[result == X_WON ? X : O]++;
+            }
+            if (r.isVsComputer()) {
+                if (result == X_WON) pvcPlayerWins++; else if (result == O_WON) pvcComputerWins++; else pvcDraws++;
+            } else {
+                if (result == X_WON) pvpXWins++; else if (result == O_WON) pvpOWins++; else pvpDraws++;
+            }
+            if (r.getSize() != size || r.getWinLength() != winLength || n == 0) return;
+
+            openings[r.getMove(0)][result]++;
+            // the human plays X against the computer; its winning move came right after the computer's last
+            if (pow3 != null && r.isVsComputer() && result == X_WON) {
+                long key = 0;
+                for (int i = 0; i < n - 1; i++) key += pow3[r.getMove(i)] * (i % 2 == 0 ? 1 : 2);
+                countLoss(key);
+            }
+        }
+
+        public double averageLength() { return games == 0 ? 0 : (double) moves / games; }
+
+        // wins of nameX, wins of nameO (the computer, against it) and draws since the matchup's last
+        // reset, counted by player whichever side each played
+        public int[] matchup(String nameX, String nameO, boolean vsComputer, int difficulty) {
+            byte[] x = name(nameX), o = vsComputer ? new byte[0] : name(nameO);
+            ByteBuffer names = ByteBuffer.allocate(x.length + o.length).put(x).put(o);
+            int[] m = matchups.find(names, vsComputer, difficulty, 0, x.length, x.length, o.length, false);
+            if (m == null) return new int[3];
+            boolean xFirst = vsComputer || !matchups.swapped;
+            return new int[]{m[xFirst ? FIRST : SECOND], m[xFirst ? SECOND : FIRST], m[DRAWS]};
+        }
+
+        private void uncount(boolean vsComputer, int[] m) {
+            if (vsComputer) {
+                pvcPlayerWins -= m[X];
+                pvcComputerWins -= m[O];
+                pvcDraws -= m[DRAWS];
+            } else {
+                pvpXWins -= m[X];
+                pvpOWins -= m[O];
+                pvpDraws -= m[DRAWS];
+            }
+        }
+
+        public int distinctLossPositions() { return lossEntries; }
+
+        // up to n {key, count} pairs, most frequent first; decode a key with position()
+        public long[][] topLossPositions(int n) {
+            long[][] all = new long[lossEntries][];
+            int j = 0;
+            for (int i = 0; i < lossKeys.length; i++) if (lossCounts[i] > 0) all[j++] = new long[]{lossKeys[i], lossCounts[i]};
+            Arrays.sort(all, (a, b) -> Long.compare(b[1], a[1]));
+            return Arrays.copyOf(all, Math.min(n, all.length));
+        }
+
+        public Board position(long key) {
+            Board board = new Board(size, winLength);
+            for (int cell = 0; cell < size * size; cell++, key /= 3) {
+                if (key % 3 != 0) board.makeMove(cell / size, cell % size, (int) (key % 3));
+            }
+            return board;
+        }
+
+        public void print(PrintStream out) {
+            out.printf("%d games, %.2f moves on average, %d score resets%n", games, averageLength(), resets);
+            out.printf("scores since last reset: PvP %d-%d, %d draws; PvC player %d, computer %d, %d draws%n",
+                    pvpXWins, pvpOWins, pvpDraws, pvcPlayerWins, pvcComputerWins, pvcDraws);
+            out.printf("openings on %dx%d (%d in a row):%n", size, size, winLength);
+            for (int cell = 0; cell < openings.length; cell++) {
+                long[] o = openings[cell];
+                long total = o[0] + o[1] + o[2];
+                if (total == 0) continue;
+                out.printf("  (%d,%d) %8d games  X %6.2f%%  O %6.2f%%  draw %6.2f%%%n", cell / size, cell % size, total,
+                        100.0 * o[X_WON] / total, 100.0 * o[O_WON] / total, 100.0 * o[DRAW] / total);
+            }
+            out.printf("computer losses from %d distinct positions; most frequent:%n", lossEntries);
+            for (long[] loss : topLossPositions(5)) {
+                Board b = position(loss[0]);
+                StringBuilder sb = new StringBuilder();
+                for (int r = 0; r < size; r++) {
+                    if (r > 0) sb.append('/');
+                    for (int c = 0; c < size; c++) sb.append(".XO".charAt(b.getCell(r, c)));
+                }
+                out.printf("  %s  %d times%n", sb, loss[1]);
+            }
+        }
+
+        // open addressing on primitive arrays, so counting never boxes
+        private void countLoss(long key) {
+            if (lossEntries * 2 >= lossKeys.length) {
+                long[] oldKeys = lossKeys;
+                int[] oldCounts = lossCounts;
+                lossKeys = new long[oldKeys.length * 2];
+                lossCounts = new int[oldKeys.length * 2];
+                lossEntries = 0;
+                for (int i = 0; i < oldKeys.length; i++) {
+                    if (oldCounts[i] > 0) { int s = slot(oldKeys[i]); lossKeys[s] = oldKeys[i]; lossCounts[s] = oldCounts[i]; lossEntries++; }
+                }
+            }
+            int s = slot(key);
+            if (lossCounts[s] == 0) { lossKeys[s] = key; lossEntries++; }
+            lossCounts[s]++;
+        }
+
+        private int slot(long key) {
+            int mask = lossKeys.length - 1;
+            long h = key * 0x9E3779B97F4A7C15L;
+            int s = (int) (h ^ h >>> 32) & mask;
+            while (lossCounts[s] > 0 && lossKeys[s] != key) s = (s + 1) & mask;
+            return s;
+        }
+    }
+
+    // Matchup -> counters, interned by the raw key bytes (kind and level, then the names' UTF-8 as
+    // the record holds them), so a record of a matchup seen before is counted without building a
+    // String. The computer's name is whatever language was on, so the level identifies it. A pair
+    // of humans is stored in unsigned byte order of their names; find() says whether it swapped them.
+    private static final class Matchups {
+        private byte[][] keys = new byte[64][];   // kind, length of the first name, first name, second name
+        private int[][] counts = new int[64][];
+        private int entries;
+        boolean swapped;   // the last find() stored nameO first
+
+        int[] find(Record r, boolean create) {
+            return find(r.buffer(), r.isVsComputer(), r.getDifficulty(), r.nameXStart(), r.nameXLength(),
+                    r.nameOStart(), r.nameOLength(), create);
+        }
+
+        // the counters of the matchup whose names are the byte runs at a and b of buf; null if it
+        // is new and create is false
+        int[] find(ByteBuffer buf, boolean vsComputer, int difficulty, int a, int aLength, int b, int bLength, boolean create) {
+            if (vsComputer) bLength = 0; else difficulty = 0;
+            swapped = !vsComputer && compare(buf, a, aLength, b, bLength) > 0;
+            if (swapped) {
+                int t = a; a = b; b = t;
+                t = aLength; aLength = bLength; bLength = t;
+            }
+            int kind = (vsComputer ? 1 : 0) | difficulty << 1;
+            int h = 31 * kind + aLength;
+            for (int i = 0; i < aLength; i++) h = 31 * h + buf.get(a + i);
+            for (int i = 0; i < bLength; i++) h = 31 * h + buf.get(b + i);
+            int mask = keys.length - 1;
+            int s = spread(h) & mask;
+            for (; keys[s] != null; s = (s + 1) & mask) {
+                if (matches(keys[s], buf, kind, a, aLength, b, bLength)) return counts[s];
+            }
+            if (!create) return null;
+            byte[] key = new byte[2 + aLength + bLength];
+            key[0] = (byte) kind;
+            key[1] = (byte) aLength;
+            buf.get(a, key, 2, aLength);
+            buf.get(b, key, 2 + aLength, bLength);
+            int[] c = new int[5];
+            if (entries * 2 >= keys.length) {
+                grow();
+                s = slot(key, h);
+            }
+            keys[s] = key;
+            counts[s] = c;
+            entries++;
+            return c;
+        }
+
+        void clear() {
+            for (int[] c : counts) if (c != null) Arrays.fill(c, 0);
+        }
+
+        private void grow() {
+            byte[][] oldKeys = keys;
+            int[][] oldCounts = counts;
+            keys = new byte[oldKeys.length * 2][];
+            counts = new int[oldKeys.length * 2][];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] == null) continue;
+                int s = slot(oldKeys[i], hash(oldKeys[i]));
+                keys[s] = oldKeys[i];
+                counts[s] = oldCounts[i];
+            }
+        }
+
+        // first free slot for a key not in the table
+        private int slot(byte[] key, int h) {
+            int mask = keys.length - 1;
+            int s = spread(h) & mask;
+            while (keys[s] != null) s = (s + 1) & mask;
+            return s;
+        }
+
+        // the same hash find() computes from the record
+        private static int hash(byte[] key) {
+            int h = 31 * key[0] + (key[1] & 0xFF);
+            for (int i = 2; i < key.length; i++) h = 31 * h + key[i];
+            return h;
+        }
+
+        private static int spread(int h) { return h ^ h >>> 16; }
+
+        private static boolean matches(byte[] key, ByteBuffer buf, int kind, int a, int aLength, int b, int bLength) {
+            if (key.length != 2 + aLength + bLength || key[0] != kind || (key[1] & 0xFF) != aLength) return false;
+            for (int i = 0; i < aLength; i++) if (key[2 + i] != buf.get(a + i)) return false;
+            for (int i = 0; i < bLength; i++) if (key[2 + aLength + i] != buf.get(b + i)) return false;
+            return true;
+        }
+
+        private static int compare(ByteBuffer buf, int a, int aLength, int b, int bLength) {
+            for (int i = 0; i < Math.min(aLength, bLength); i++) {
+                int d = (buf.get(a + i) & 0xFF) - (buf.get(b + i) & 0xFF);
+                if (d != 0) return d;
+            }
+            return aLength - bLength;
+        }
+    }
+
+    // GameLog [file]: prints the statistics of a log, by default the one the app writes
+    public static void main(String[] args) throws IOException {
+        Path path = args.length > 0 ? Paths.get(args[0]) : new GameLog().getFile();
+        if (Files.notExists(path)) {
+            System.out.println("No game log at " + path);
+            return;
+        }
+        Stats stats = new Stats();
+        long started = System.nanoTime();
+        scan(path, stats);
+        double seconds = (System.nanoTime() - started) / 1e9;
+        stats.print(System.out);
+        System.out.printf("scanned %d records in %.3f s%n", stats.games + stats.resets, seconds);
+    }
+}
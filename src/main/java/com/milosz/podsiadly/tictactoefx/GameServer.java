@@ -0,0 +1,304 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Headless server: people (or the load test) play the AI levels over TCP. Every connection gets a
+// virtual thread that blocks on its socket, so thousands of idle sessions cost a small stack and a
+// board each. Computer moves run on a small fixed pool with a bounded queue; each pool thread owns
+// one engine per level, and a session parks its virtual thread while the pool works on its board.
+//
+//   GameServer [--port 4000] [--ai-threads N] [--ai-queue 100000] [--max-size 8]
+//
+// Protocol, one ASCII line per request and one reply line per request:
+//   NEW <size> <k> <level> [X|O]   start a game against a level (1-5 built in), playing X (default) or O
+//                                  -> OK, or OK <r> <c> when the computer opens
+//   MOVE <r> <c>                   -> <r> <c> (the reply), <r> <c> WIN / <r> <c> DRAW when the reply
+//                                     ends the game, or WIN / DRAW when your own move does
+//   BOARD                          -> rows of . X O separated by /
+//   QUIT                           -> BYE, then the server closes the connection
+// Anything else gets ERR <reason>; ERR BUSY means the AI queue is full and the move was not played.
+// Lines over 128 characters get ERR line too long, and are not buffered past that.
+public class GameServer implements AutoCloseable {
+    private static final int BUFFER = 256;   // per direction per connection; lines are short
+    private static final int MAX_LINE = 128;   // longer than any request; a longer one gets ERR
+
+    private final ServerSocket socket;
+    private final int maxSize;
+    private final ExecutorService sessions = Executors.newVirtualThreadPerTaskExecutor();
+    private final ThreadPoolExecutor ai;
+    private final ThreadLocal<MoveEngine[]> engines;
+    private final SplittableRandom seeds = new SplittableRandom();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong connections = new AtomicLong(), games = new AtomicLong(), aiMoves = new AtomicLong();
+    private final AtomicLong busy = new AtomicLong();
+
+    public GameServer(int port, int aiThreads, int aiQueue, int maxSize) throws IOException {
+        this.socket = new ServerSocket();
+        socket.bind(new InetSocketAddress(port), 4096);
+        this.maxSize = Math.min(64, Math.max(3, maxSize));
+        AtomicInteger ids = new AtomicInteger();
+        this.ai = new ThreadPoolExecutor(aiThreads, aiThreads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(aiQueue), r -> {
+            Thread t = new Thread(r, "server-ai-" + ids.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.engines = ThreadLocal.withInitial(() -> new MoveEngine[MoveEngines.maxLevel() + 1]);
+    }
+
+    public int getPort() { return socket.getLocalPort(); }
+
+    public int activeSessions() { return active.get(); }
+
+    // accepts on a virtual thread of its own and returns at once
+    public GameServer start() {
+        Thread.ofVirtual().name("server-accept").start(this::acceptLoop);
+        return this;
+    }
+
+    @Override
+    public void close() {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+        sessions.shutdownNow();
+        ai.shutdownNow();
+    }
+
+    public String summary() {
+        return String.format("%d active sessions, %d connections, %d games, %d computer moves, %d busy rejections, AI queue %d",
+                active.get(), connections.get(), games.get(), aiMoves.get(), busy.get(), ai.getQueue().size());
+    }
+
+    private void acceptLoop() {
+        while (!socket.isClosed()) {
+            try {
+                Socket client = socket.accept();
+                connections.incrementAndGet();
+                sessions.execute(() -> serve(client));
+            } catch (IOException | RejectedExecutionException e) {
+                if (!socket.isClosed()) System.err.println("accept failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void serve(Socket client) {
+        active.incrementAndGet();
+        try (client;
+             BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.US_ASCII), BUFFER);
+             Writer out = new BufferedWriter(new OutputStreamWriter(client.getOutputStream(), StandardCharsets.US_ASCII), BUFFER)) {
+            client.setTcpNoDelay(true);
+            Session session = new Session();
+            StringBuilder buf = new StringBuilder(MAX_LINE + 1);
+            String line;
+            while ((line = readLine(in, buf)) != null) {
+                String reply = line.length() > MAX_LINE ? "ERR line too long" : handle(session, line.trim());
+                out.write(reply);
+                out.write('\n');
+                out.flush();
+                if (reply.equals("BYE")) break;
+            }
+        } catch (IOException ignored) {
+            // the client went away; nothing to clean up beyond the socket
+        } finally {
+            active.decrementAndGet();
+        }
+    }
+
+    // The next line without its terminator, or null at the end of the stream. Unlike
+    // BufferedReader.readLine it keeps at most MAX_LINE + 1 characters of a line and skips the
+    // rest, so a client that never sends a newline can't make the server buffer without bound.
+    private static String readLine(Reader in, StringBuilder buf) throws IOException {
+        buf.setLength(0);
+        int ch;
+        boolean any = false;
+        while ((ch = in.read()) >= 0 && ch != '\n') {
+            any = true;
+            if (buf.length() <= MAX_LINE) buf.append((char) ch);
+        }
+        return ch < 0 && !any ? null : buf.toString();
+    }
+
+    // what one connection is playing: the game plus who the human is
+    private static final class Session {
+        GameEngine game;
+        int human, level;
+    }
+
+    private String handle(Session s, String line) {
+        String[] parts = line.split("\\s+");
+        try {
+            return switch (parts[0].toUpperCase()) {
+                case "NEW" -> newGame(s, parts);
+                case "MOVE" -> move(s, parts);
+                case "BOARD" -> s.game == null ? "ERR no game" : render(s.game.getBoard());
+                case "QUIT" -> "BYE";
+                default -> "ERR unknown command";
+            };
+        } catch (NumberFormatException e) {
+            return "ERR bad number";
+        }
+    }
+
+    private String newGame(Session s, String[] parts) {
+        if (parts.length < 4) return "ERR usage: NEW <size> <k> <level> [X|O]";
+        int size = Integer.parseInt(parts[1]), k = Integer.parseInt(parts[2]), level = Integer.parseInt(parts[3]);
+        if (size < 3 || size > maxSize) return "ERR size must be 3.." + maxSize;
+        if (k < 3 || k > size) return "ERR k must be 3.." + size;
+        if (!MoveEngines.exists(level)) return "ERR no level " + level;
+        int human = parts.length > 4 && parts[4].equalsIgnoreCase("O") ? 2 : 1;
+        // reuse the engine between games of the same shape; reset() allocates only the new board
+        if (s.game == null || s.game.getBoard().getSize() != size || s.game.getBoard().getWinLength() != k) {
+            s.game = new GameEngine(size, k);
+        } else {
+            s.game.reset();
+        }
+        s.human = human;
+        s.level = level;
+        games.incrementAndGet();
+        if (human == 1) return "OK";
+        String reply = computerMove(s);
+        if (!reply.startsWith("ERR")) return "OK " + reply;
+        s.game = null;   // no half-started games: the client has to ask again
+        return reply;
+    }
+
+    private String move(Session s, String[] parts) {
+        if (s.game == null) return "ERR no game";
+        if (parts.length < 3) return "ERR usage: MOVE <r> <c>";
+        GameEngine game = s.game;
+        if (game.isOver()) return "ERR game over";
+        int r = Integer.parseInt(parts[1]), c = Integer.parseInt(parts[2]);
+        if (!game.isLegal(r, c)) return "ERR illegal move";
+        switch (game.play(r, c)) {
+            case WIN: return "WIN";
+            case DRAW: return "DRAW";
+            default: break;
+        }
+        String reply = computerMove(s);
+        if (reply.startsWith("ERR")) game.undo(r, c);   // the move was not played, so the client may retry it
+        return reply;
+    }
+
+    // runs on the shared pool; the session's virtual thread just waits for the answer
+    private String computerMove(Session s) {
+        GameEngine game = s.game;
+        int level = s.level, player = 3 - s.human;
+        // claimed by whichever comes first: the pool thread starting the search, or a caller giving up on it
+        AtomicBoolean claimed = new AtomicBoolean();
+        CountDownLatch done = new CountDownLatch(1);
+        Future<int[]> pending;
+        try {
+            pending = ai.submit(() -> {
+                if (!claimed.compareAndSet(false, true)) return null;
+                try {
+                    return engineFor(level).chooseMove(game.getBoard(), player);
+                } finally {
+                    done.countDown();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            busy.incrementAndGet();
+            return "ERR BUSY";
+        }
+        int[] mv;
+        try {
+            mv = pending.get();
+        } catch (InterruptedException e) {
+            pending.cancel(true);
+            // a search already under way is still on the board the caller is about to undo a move on
+            if (!claimed.compareAndSet(false, true)) awaitUninterruptibly(done);
+            Thread.currentThread().interrupt();
+            return "ERR shutting down";
+        } catch (ExecutionException e) {
+            return "ERR engine failed";
+        }
+        if (mv == null || !game.isLegal(mv[0], mv[1])) return "ERR engine failed";
+        aiMoves.incrementAndGet();
+        return switch (game.play(mv[0], mv[1])) {
+            case WIN -> mv[0] + " " + mv[1] + " WIN";
+            case DRAW -> mv[0] + " " + mv[1] + " DRAW";
+            case CONTINUE -> mv[0] + " " + mv[1];
+        };
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        while (true) {
+            try {
+                latch.await();
+                return;
+            } catch (InterruptedException ignored) {
+                // the caller restores the flag
+            }
+        }
+    }
+
+    private MoveEngine engineFor(int level) {
+        MoveEngine[] own = engines.get();
+        if (own[level] == null) {
+            SplittableRandom rng;
+            synchronized (seeds) {
+                rng = seeds.split();
+            }
+            // the pool already supplies the parallelism, so every engine searches on one thread
+            own[level] = MoveEngine.forLevel(level, rng, 1);
+        }
+        return own[level];
+    }
+
+    private static String render(Board board) {
+        int size = board.getSize();
+        StringBuilder sb = new StringBuilder(size * (size + 1));
+        for (int r = 0; r < size; r++) {
+            if (r > 0) sb.append('/');
+            for (int c = 0; c < size; c++) sb.append(".XO".charAt(board.getCell(r, c)));
+        }
+        return sb.toString();
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = 4000, aiThreads = Runtime.getRuntime().availableProcessors(), aiQueue = 100_000, maxSize = 8;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--port" -> port = Integer.parseInt(args[i + 1]);
+                case "--ai-threads" -> aiThreads = Integer.parseInt(args[i + 1]);
+                case "--ai-queue" -> aiQueue = Integer.parseInt(args[i + 1]);
+                case "--max-size" -> maxSize = Integer.parseInt(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        GameServer server = new GameServer(port, aiThreads, aiQueue, maxSize).start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        System.out.printf("listening on port %d, %d AI threads%n", server.getPort(), aiThreads);
+        String last = "";
+        while (true) {
+            Thread.sleep(10_000);
+            String now = server.summary();
+            if (!now.equals(last)) System.out.println(now);
+            last = now;
+        }
+    }
+}
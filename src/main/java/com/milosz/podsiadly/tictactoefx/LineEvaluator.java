@@ -0,0 +1,204 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Incremental line counts: for every k-long segment of the board, how many stones each player has
+// in it. A move only touches the segments through its cell (at most 4k), and from those counts we
+// keep a list of threats per player (k-1 stones, no opponent stone) and a running static score.
+// "Can I win now?", "must I block?" and "who stands better?" are then O(1), plus O(k) to name the cell.
+// Like SymmetryHasher, reset it from a board and then mirror every makeMove/undoMove made on it.
+public class LineEvaluator {
+    // static scores stay far below AlphaBetaSearch's win scores, so they never read as a forced result
+    public static final int EVAL_LIMIT = 100_000;
+
+    private static final Map<Integer, Geometry> GEOMETRIES = new ConcurrentHashMap<>();
+
+    private final int size, winLength;
+    private final Geometry geo;
+    private final byte[] cells;
+    private final byte[][] count;      // [player][segment]
+    private final int[][] threats;     // [player] the segments where that player needs one more stone
+    private final int[][] threatSlot;  // [player][segment] position in threats + 1, 0 if not a threat
+    private final int[] threatCount = new int[3];
+    private final int[] completed = new int[3];   // finished lines per player
+    private final long[] potential = new long[3];
+    private final long[] weight;       // score of an unopposed segment by how many stones it holds
+
+    // segment layout for one (size, k), shared by every evaluator of that shape (and PatternPolicy)
+    static final class Geometry {
+        final int[] start, step;   // segment s covers start[s] + i * step[s] for i < k
+        final int[][] through;     // the segments through each cell
+        final int[][] offset;      // [cell][j]: the cell is stone offset[cell][j] of segment through[cell][j]
+
+        Geometry(int size, int k) {
+            int[][] dirs = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+            int[] st = new int[4 * size * size], sp = new int[4 * size * size];
+            int[] perCell = new int[size * size];
+            int n = 0;
+            for (int row = 0; row < size; row++) {
+                for (int col = 0; col < size; col++) {
+                    for (int[] d : dirs) {
+                        int endRow = row + d[0] * (k - 1), endCol = col + d[1] * (k - 1);
+                        if (endRow < 0 || endRow >= size || endCol < 0 || endCol >= size) continue;
+                        st[n] = row * size + col;
+                        sp[n] = d[0] * size + d[1];
+                        for (int i = 0; i < k; i++) perCell[st[n] + i * sp[n]]++;
+                        n++;
+                    }
+                }
+            }
+            start = Arrays.copyOf(st, n);
+            step = Arrays.copyOf(sp, n);
+            through = new int[size * size][];
+            offset = new int[size * size][];
+            for (int cell = 0; cell < through.length; cell++) {
+                through[cell] = new int[perCell[cell]];
+                offset[cell] = new int[perCell[cell]];
+            }
+            int[] fill = new int[size * size];
+            for (int s = 0; s < n; s++) {
+                for (int i = 0; i < k; i++) {
+                    int cell = start[s] + i * step[s];
+                    offset[cell][fill[cell]] = i;
+                    through[cell][fill[cell]++] = s;
+                }
+            }
+        }
+
+        static Geometry of(int size, int k) {
+            return GEOMETRIES.computeIfAbsent(size * 65 + k, key -> new Geometry(size, k));
+        }
+    }
+
+    public LineEvaluator(int size, int winLength) {
+        this.size = size;
+        this.winLength = winLength;
+        this.geo = Geometry.of(size, winLength);
+        int segments = geo.start.length;
+        this.cells = new byte[size * size];
+        this.count = new byte[3][segments];
+        this.threats = new int[3][segments];
+        this.threatSlot = new int[3][segments];
+        // each extra stone in an open segment is worth 4x the last; a finished line counts as the limit,
+        // as does 4^31 and up (which the shift can't produce: a long shift count wraps past 63)
+        this.weight = new long[winLength + 1];
+        for (int c = 1; c < winLength; c++) weight[c] = c - 1 >= 31 ? EVAL_LIMIT : Math.min(EVAL_LIMIT, 1L << (2 * (c - 1)));
+        weight[winLength] = EVAL_LIMIT;
+    }
+
+    public int getSize() { return size; }
+
+    public int getWinLength() { return winLength; }
+
+    // number of k-long segments on the board
+    public int segments() { return geo.start.length; }
+
+    // rebuilds the counts for the stones on board: O(stones x segments through a cell)
+    public void reset(Board board) {
+        if (board.getSize() != size || board.getWinLength() != winLength) throw new IllegalArgumentException("Board shape does not match.");
+        Arrays.fill(cells, (byte) 0);
+        for (int p = 1; p <= 2; p++) {
+            Arrays.fill(count[p], (byte) 0);
+            for (int i = 0; i < threatCount[p]; i++) threatSlot[p][threats[p][i]] = 0;
+            threatCount[p] = 0;
+            completed[p] = 0;
+            potential[p] = 0;
+        }
+        for (int i = 0; i < board.getMoveCount(); i++) {
+            int cell = board.getMove(i);
+            makeMove(cell, board.getCell(cell / size, cell % size));
+        }
+    }
+
+    public void makeMove(int cell, int player) {
+        cells[cell] = (byte) player;
+        for (int s : geo.through[cell]) {
+            detach(s);
+            count[player][s]++;
+            attach(s);
+        }
+    }
+
+    public void undoMove(int cell, int player) {
+        cells[cell] = 0;
+        for (int s : geo.through[cell]) {
+            detach(s);
+            count[player][s]--;
+            attach(s);
+        }
+    }
+
+    // segments where player is one stone short with no opponent stone in the way; two of them
+    // may share their empty cell
+    public int openThreats(int player) { return threatCount[player]; }
+
+    public boolean canWin(int player) { return threatCount[player] > 0; }
+
+    // unlike Board.checkWin this does not depend on move order, so it also works on positions
+    // that were set up rather than played
+    public boolean hasLine(int player) { return completed[player] > 0; }
+
+    // a cell that completes a line for player, or -1
+    public int winningCell(int player) {
+        if (threatCount[player] == 0) return -1;
+        int s = threats[player][0];
+        for (int i = 0; i < winLength; i++) {
+            int cell = geo.start[s] + i * geo.step[s];
+            if (cells[cell] == 0) return cell;
+        }
+        throw new IllegalStateException("threat list out of date");
+    }
+
+    // the cell player has to take to stop the opponent winning next move, or -1
+    public int mustBlock(int player) { return winningCell(3 - player); }
+
+    // Static value for player, who is to move: a threat of its own is a win in one; otherwise the
+    // difference in open-segment weight. Always within +-EVAL_LIMIT.
+    public int evaluate(int player) {
+        if (threatCount[player] > 0) return EVAL_LIMIT;
+        long v = potential[player] - potential[3 - player];
+        return (int) Math.max(-EVAL_LIMIT, Math.min(EVAL_LIMIT, v));
+    }
+
+    private void detach(int s) {
+        int x = count[1][s], o = count[2][s];
+        if (o == 0 && x > 0) {
+            potential[1] -= weight[x];
+            if (x == winLength - 1) removeThreat(1, s);
+            else if (x == winLength) completed[1]--;
+        } else if (x == 0 && o > 0) {
+            potential[2] -= weight[o];
+            if (o == winLength - 1) removeThreat(2, s);
+            else if (o == winLength) completed[2]--;
+        }
+    }
+
+    private void attach(int s) {
+        int x = count[1][s], o = count[2][s];
+        if (o == 0 && x > 0) {
+            potential[1] += weight[x];
+            if (x == winLength - 1) addThreat(1, s);
+            else if (x == winLength) completed[1]++;
+        } else if (x == 0 && o > 0) {
+            potential[2] += weight[o];
+            if (o == winLength - 1) addThreat(2, s);
+            else if (o == winLength) completed[2]++;
+        }
+    }
+
+    private void addThreat(int player, int s) {
+        threats[player][threatCount[player]] = s;
+        threatSlot[player][s] = ++threatCount[player];
+    }
+
+    // swap-with-last removal keeps the list dense
+    private void removeThreat(int player, int s) {
+        int slot = threatSlot[player][s] - 1;
+        int last = threats[player][--threatCount[player]];
+        threats[player][slot] = last;
+        threatSlot[player][last] = slot + 1;
+        threatSlot[player][s] = 0;
+    }
+}
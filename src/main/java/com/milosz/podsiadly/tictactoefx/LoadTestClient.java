@@ -0,0 +1,231 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Load generator for GameServer: opens one connection per simulated player, waits until all of
+// them are connected, then has every player play its games at once with random legal moves. The
+// latency of a move is from sending MOVE to reading the server's reply, computer move included.
+//
+//   LoadTestClient [--host localhost] [--port 4000] [--clients 10000] [--games 5]
+//                  [--size 3] [--win 3] [--level 2] [--seed 42] [--embedded]
+//
+// --embedded starts a server in this JVM first, so one command measures a local round trip. Each
+// connection is a file descriptor (two with --embedded), so raise ulimit -n for big runs.
+public class LoadTestClient {
+
+    private LoadTestClient() {}
+
+    public static void main(String[] args) throws Exception {
+        String host = "localhost";
+        int port = 4000, clients = 10_000, games = 5, size = 3, winLength = 3, level = 2;
+        long seed = 42;
+        boolean embedded = false;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--embedded")) { embedded = true; continue; }
+            if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value for " + args[i]);
+            String value = args[++i];
+            switch (args[i - 1]) {
+                case "--host" -> host = value;
+                case "--port" -> port = Integer.parseInt(value);
+                case "--clients" -> clients = Integer.parseInt(value);
+                case "--games" -> games = Integer.parseInt(value);
+                case "--size" -> size = Integer.parseInt(value);
+                case "--win" -> winLength = Integer.parseInt(value);
+                case "--level" -> level = Integer.parseInt(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i - 1]);
+            }
+        }
+
+        GameServer server = null;
+        if (embedded) {
+            server = new GameServer(0, Runtime.getRuntime().availableProcessors(), 100_000, Math.max(8, size)).start();
+            host = "localhost";
+            port = server.getPort();
+        }
+        System.out.printf("%d clients x %d games, %dx%d board, %d in a row, level %d, %s:%d%n",
+                clients, games, size, size, winLength, level, host, port);
+
+        CountDownLatch connected = new CountDownLatch(clients), go = new CountDownLatch(1);
+        SplittableRandom master = new SplittableRandom(seed);
+        List<Future<Client>> running = new ArrayList<>(clients);
+        long started;
+        ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            for (int i = 0; i < clients; i++) {
+                Client p = new Client(host, port, games, size, winLength, level, master.split(), connected, go);
+                running.add(pool.submit(p::run));
+            }
+            connected.await();
+            System.out.println("all clients connected, playing");
+            started = System.nanoTime();
+            go.countDown();
+
+            long[][] latencies = new long[clients][];
+            long[] connects = new long[clients];
+            long moves = 0, played = 0, errors = 0;
+            int[] results = new int[3];   // draws, client wins, server wins
+            String firstError = null;
+            for (int i = 0; i < clients; i++) {
+                Client p;
+                try {
+                    p = running.get(i).get();
+                } catch (ExecutionException e) {
+                    errors++;
+                    if (firstError == null) firstError = String.valueOf(e.getCause());
+                    latencies[i] = new long[0];
+                    continue;
+                }
+                latencies[i] = Arrays.copyOf(p.latencies, p.moves);
+                connects[i] = p.connectNanos;
+                moves += p.moves;
+                played += p.played;
+                errors += p.errors;
+                if (firstError == null) firstError = p.firstError;
+                for (int r = 0; r < 3; r++) results[r] += p.results[r];
+            }
+            double seconds = (System.nanoTime() - started) / 1e9;
+
+            System.out.printf("%d games, %d moves in %.2f s: %.0f games/s, %.0f moves/s%n",
+                    played, moves, seconds, played / seconds, moves / seconds);
+            System.out.printf("client wins %d, server wins %d, draws %d, errors %d%s%n",
+                    results[1], results[2], results[0], errors, firstError == null ? "" : " (first: " + firstError + ")");
+            printPercentiles("move latency", merge(latencies));
+            printPercentiles("connect time", connects);
+        } finally {
+            pool.shutdownNow();
+            if (server != null) {
+                System.out.println("server: " + server.summary());
+                server.close();
+            }
+        }
+    }
+
+    private static long[] merge(long[][] parts) {
+        int n = 0;
+        for (long[] p : parts) n += p.length;
+        long[] all = new long[n];
+        int at = 0;
+        for (long[] p : parts) {
+            System.arraycopy(p, 0, all, at, p.length);
+            at += p.length;
+        }
+        return all;
+    }
+
+    private static void printPercentiles(String what, long[] nanos) {
+        if (nanos.length == 0) return;
+        Arrays.sort(nanos);
+        System.out.printf("%-12s p50 %8.3f ms  p90 %8.3f ms  p99 %8.3f ms  p99.9 %8.3f ms  max %8.3f ms%n", what,
+                percentile(nanos, 0.50), percentile(nanos, 0.90), percentile(nanos, 0.99), percentile(nanos, 0.999),
+                nanos[nanos.length - 1] / 1e6);
+    }
+
+    // nearest rank on sorted input, in milliseconds
+    private static double percentile(long[] sorted, double p) {
+        int rank = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank))] / 1e6;
+    }
+
+    // one simulated player; keeps its own copy of the board to pick legal moves from
+    private static final class Client {
+        private final String host;
+        private final int port, games, size, winLength, level;
+        private final SplittableRandom rng;
+        private final CountDownLatch connected, go;
+        long[] latencies = new long[16];
+        int moves, played, errors;
+        final int[] results = new int[3];
+        long connectNanos;
+        String firstError;
+
+        Client(String host, int port, int games, int size, int winLength, int level, SplittableRandom rng,
+               CountDownLatch connected, CountDownLatch go) {
+            this.host = host; this.port = port; this.games = games; this.size = size;
+            this.winLength = winLength; this.level = level; this.rng = rng;
+            this.connected = connected; this.go = go;
+        }
+
+        Client run() throws IOException, InterruptedException {
+            long t0 = System.nanoTime();
+            Socket socket;
+            try {
+                socket = new Socket(host, port);
+            } finally {
+                connectNanos = System.nanoTime() - t0;
+                connected.countDown();
+            }
+            try (socket;
+                 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII), 256);
+                 Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII), 256)) {
+                socket.setTcpNoDelay(true);
+                go.await();
+                int[] free = new int[size * size];
+                for (int g = 0; g < games; g++) {
+                    boolean asO = rng.nextBoolean();
+                    Board board = new Board(size, winLength);
+                    String reply = call(in, out, "NEW " + size + " " + winLength + " " + level + (asO ? " O" : " X"));
+                    if (!reply.startsWith("OK")) { error(reply); continue; }
+                    int me = asO ? 2 : 1;
+                    if (asO) {
+                        String[] opening = reply.split(" ");
+                        board.makeMove(Integer.parseInt(opening[1]), Integer.parseInt(opening[2]), 1);
+                    }
+                    played++;
+                    while (true) {
+                        int n = 0;
+                        for (int cell = 0; cell < size * size; cell++) if (board.getCell(cell / size, cell % size) == 0) free[n++] = cell;
+                        int cell = free[rng.nextInt(n)];
+                        board.makeMove(cell / size, cell % size, me);
+                        long sent = System.nanoTime();
+                        reply = call(in, out, "MOVE " + cell / size + " " + cell % size);
+                        record(System.nanoTime() - sent);
+                        if (reply.startsWith("ERR")) { error(reply); break; }
+                        String[] parts = reply.split(" ");
+                        if (parts[0].equals("WIN")) { results[1]++; break; }
+                        if (parts[0].equals("DRAW")) { results[0]++; break; }
+                        board.makeMove(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), 3 - me);
+                        if (parts.length > 2) { results[parts[2].equals("WIN") ? 2 : 0]++; break; }
+                    }
+                }
+                call(in, out, "QUIT");
+            }
+            return this;
+        }
+
+        private static String call(BufferedReader in, Writer out, String request) throws IOException {
+            out.write(request);
+            out.write('\n');
+            out.flush();
+            String reply = in.readLine();
+            if (reply == null) throw new IOException("server closed the connection");
+            return reply;
+        }
+
+        private void record(long nanos) {
+            if (moves == latencies.length) latencies = Arrays.copyOf(latencies, moves * 2);
+            latencies[moves++] = nanos;
+        }
+
+        private void error(String reply) {
+            errors++;
+            if (firstError == null) firstError = reply;
+        }
+    }
+}
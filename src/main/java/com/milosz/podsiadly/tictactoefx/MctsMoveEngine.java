@@ -0,0 +1,41 @@
+package com.milosz.podsiadly.tictactoefx;
+
+// Expert: Monte Carlo tree search within a playout and time budget.
+public class MctsMoveEngine implements MoveEngine {
+    private final MctsSearch search;
+    private final long playouts, millis;
+    private long lastNodes;
+    private int lastDepth;
+
+    public MctsMoveEngine(int searchThreads) { this(searchThreads, 1); }
+
+    public MctsMoveEngine(int searchThreads, double budgetScale) {
+        this(searchThreads, Integer.getInteger("tictactoe.mctsNodes", 1 << 20),
+                Math.round(Long.getLong("tictactoe.mctsPlayouts", 200_000) * budgetScale),
+                Math.round(Long.getLong("tictactoe.mctsMillis", 1_000) * budgetScale));
+    }
+
+    public MctsMoveEngine(int searchThreads, int maxNodes, long playouts, long millis) {
+        this.search = new MctsSearch(searchThreads, maxNodes);
+        this.playouts = playouts;
+        this.millis = millis;
+    }
+
+    @Override
+    public int[] chooseMove(Board board, int player) {
+        MctsSearch.Result res = search.search(board, player, playouts, millis);
+        lastNodes = res == null ? 0 : res.playouts;
+        lastDepth = res == null ? 0 : res.depth;
+        if (res == null) return null;
+        return res.move();
+    }
+
+    @Override
+    public long lastNodes() { return lastNodes; }
+
+    @Override
+    public int lastDepth() { return lastDepth; }
+
+    @Override
+    public void close() { search.shutdown(); }
+}
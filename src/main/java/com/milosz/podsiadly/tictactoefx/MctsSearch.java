@@ -0,0 +1,271 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Monte Carlo Tree Search (UCT) for boards too big to solve. The tree lives in flat arrays indexed
+// by node number -- no per-node objects -- and a node's children occupy one contiguous run of
+// indices. Several threads share the tree; a thread walking down adds a virtual loss to every node
+// on its path so the others spread out instead of all following the same line.
+public class MctsSearch {
+    // per node: childStart + childCount + visits + score (4 bytes each) + move (2 bytes)
+    public static final int BYTES_PER_NODE = 18;
+
+    private static final int UNEXPANDED = 0, EXPANDING = -1, NO_ROOM = -2;
+    private static final int VIRTUAL_LOSS = 3;
+    private static final double EXPLORATION = 1.4;
+
+    private final int threads;
+    private final int capacity;
+    private final ExecutorService pool;
+
+    private final AtomicIntegerArray childStart;
+    private final int[] childCount;
+    private final short[] move;
+    private final AtomicIntegerArray visits;
+    private final AtomicIntegerArray score;    // 2 per win, 1 per draw, for the player who moved into the node
+    private final AtomicInteger allocated = new AtomicInteger();
+    private final AtomicLong playouts = new AtomicLong();
+    private final AtomicInteger maxDepth = new AtomicInteger();
+    private volatile boolean stop;
+    private long seed = System.nanoTime();
+
+    public static final class Result {
+        public final int row, col;
+        public final long playouts;
+        public final int nodes;
+        public final int depth;   // deepest tree node reached by selection
+        public final long elapsedNanos;
+        public final double winRate;
+
+        Result(int row, int col, long playouts, int nodes, int depth, long elapsedNanos, double winRate) {
+            this.row = row; this.col = col; this.playouts = playouts; this.nodes = nodes;
+            this.depth = depth; this.elapsedNanos = elapsedNanos; this.winRate = winRate;
+        }
+
+        public double playoutsPerSecond() { return elapsedNanos == 0 ? 0 : playouts * 1e9 / elapsedNanos; }
+
+        public int[] move() { return new int[]{row, col}; }
+
+        @Override
+        public String toString() {
+            return String.format("move (%d,%d) score %.2f, %d playouts, %d nodes (%d KB), depth %d, %.0f playouts/s",
+                    row, col, winRate, playouts, nodes, (long) nodes * BYTES_PER_NODE / 1024, depth, playoutsPerSecond());
+        }
+    }
+
+    public MctsSearch(int threads, int maxNodes) {
+        this.threads = Math.max(1, threads);
+        this.capacity = maxNodes;
+        this.childStart = new AtomicIntegerArray(maxNodes);
+        this.childCount = new int[maxNodes];
+        this.move = new short[maxNodes];
+        this.visits = new AtomicIntegerArray(maxNodes);
+        this.score = new AtomicIntegerArray(maxNodes);
+        this.pool = Executors.newFixedThreadPool(this.threads, r -> {
+            Thread t = new Thread(r, "mcts-worker");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public int getThreads() { return threads; }
+
+    public long memoryBytes() { return (long) capacity * BYTES_PER_NODE; }
+
+    public void setSeed(long seed) { this.seed = seed; }
+
+    // Runs until either budget is spent (playouts <= 0 or millis <= 0 means no limit on that axis).
+    public synchronized Result search(Board board, int player, long maxPlayouts, long maxMillis) {
+        if (board.isFull()) return null;
+        int size = board.getSize();
+        long started = System.nanoTime();
+        long deadline = maxMillis > 0 ? started + maxMillis * 1_000_000 : Long.MAX_VALUE;
+        long budget = maxPlayouts > 0 ? maxPlayouts : Long.MAX_VALUE;
+
+        allocated.set(1);
+        resetNode(0, -1);
+        playouts.set(0);
+        maxDepth.set(0);
+        stop = false;
+        SplittableRandom master = new SplittableRandom(seed);
+        if (!expand(0, board)) {
+            // the node cap is smaller than the root's children: no tree, so any free cell will do
+            int cell = randomFreeCell(board, master);
+            return new Result(cell / size, cell % size, 0, 1, 0, System.nanoTime() - started, 0);
+        }
+
+        Future<?>[] running = new Future<?>[threads];
+        try {
+            for (int t = 0; t < threads; t++) {
+                Board own = board.copy();
+                SplittableRandom rnd = master.split();
+                running[t] = pool.submit(() -> work(own, player, rnd, budget, deadline));
+            }
+            for (Future<?> f : running) f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("search cancelled");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            // the next search resets the tree, so no worker may still be in it
+            stop = true;
+            awaitQuietly(running);
+        }
+
+        int start = childStart.get(0), best = -1;
+        for (int c = start; c < start + childCount[0]; c++) {
+            if (best < 0 || visits.get(c) > visits.get(best)) best = c;
+        }
+        int cell = move[best];
+        double rate = visits.get(best) == 0 ? 0 : score.get(best) / (2.0 * visits.get(best));
+        return new Result(cell / size, cell % size, Math.min(playouts.get(), budget),
+                Math.min(allocated.get(), capacity), maxDepth.get(), System.nanoTime() - started, rate);
+    }
+
+    public void shutdown() { pool.shutdownNow(); }
+
+    // waits for every worker to return, keeping (not acting on) an interrupt that arrives meanwhile
+    private static void awaitQuietly(Future<?>[] running) {
+        boolean interrupted = Thread.interrupted();
+        for (Future<?> f : running) {
+            while (f != null) {
+                try {
+                    f.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException | CancellationException e) {
+                    break;
+                }
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    private static int randomFreeCell(Board board, SplittableRandom rnd) {
+        int size = board.getSize();
+        int skip = rnd.nextInt(size * size - board.getMoveCount());
+        for (int cell = 0; ; cell++) {
+            if (board.isCellAvailable(cell / size, cell % size) && skip-- == 0) return cell;
+        }
+    }
+
+    private void work(Board board, int rootPlayer, SplittableRandom rnd, long budget, long deadline) {
+        int size = board.getSize();
+        int[] path = new int[board.getSize() * board.getSize() + 1];
+        int deepest = 0;
+        while (!stop) {
+            if (playouts.incrementAndGet() > budget || System.nanoTime() > deadline) { stop = true; break; }
+
+            // selection, with a virtual loss on every node we pass
+            int depth = 0, node = 0, player = rootPlayer, winner = -1;
+            path[depth++] = 0;
+            visits.addAndGet(0, VIRTUAL_LOSS);
+            while (true) {
+                int start = childStart.get(node);
+                if (start <= 0) {
+                    if (start == UNEXPANDED && visits.get(node) > VIRTUAL_LOSS && expand(node, board)) continue;
+                    break;
+                }
+                node = select(node, start);
+                int cell = move[node];
+                board.makeMove(cell / size, cell % size, player);
+                path[depth++] = node;
+                visits.addAndGet(node, VIRTUAL_LOSS);
+                if (board.checkWin(player)) { winner = player; break; }
+                if (board.isFull()) { winner = 0; break; }
+                player = 3 - player;
+            }
+
+            if (depth - 1 > deepest) deepest = depth - 1;
+            if (winner < 0) winner = playout(board, player, rnd);
+
+            // back-propagation: swap the virtual loss for the real visit
+            for (int i = depth - 1; i >= 0; i--) {
+                int n = path[i];
+                visits.addAndGet(n, 1 - VIRTUAL_LOSS);
+                if (i > 0) {
+                    int mover = (i % 2 == 1) ? rootPlayer : 3 - rootPlayer;
+                    if (winner == mover) score.addAndGet(n, 2);
+                    else if (winner == 0) score.addAndGet(n, 1);
+                    int cell = move[n];
+                    board.undoMove(cell / size, cell % size);
+                }
+            }
+        }
+        maxDepth.accumulateAndGet(deepest, Math::max);
+    }
+
+    private int select(int node, int start) {
+        double logParent = Math.log(Math.max(1, visits.get(node)));
+        int best = start;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int c = start; c < start + childCount[node]; c++) {
+            int n = visits.get(c);
+            double value = n == 0 ? Double.MAX_VALUE
+                    : score.get(c) / (2.0 * n) + EXPLORATION * Math.sqrt(logParent / n);
+            if (value > bestValue) { bestValue = value; best = c; }
+        }
+        return best;
+    }
+
+    // claims the node, carves a contiguous child block out of the arrays, then publishes it
+    private boolean expand(int node, Board board) {
+        if (!childStart.compareAndSet(node, UNEXPANDED, EXPANDING)) return false;
+        int size = board.getSize();
+        int free = size * size - board.getMoveCount();
+        int start = allocated.getAndAdd(free);
+        if (start + free > capacity) {
+            childStart.set(node, NO_ROOM);
+            return false;
+        }
+        int c = start;
+        for (int cell = 0; cell < size * size; cell++) {
+            if (board.getCell(cell / size, cell % size) == 0) resetNode(c++, cell);
+        }
+        childCount[node] = free;
+        childStart.set(node, start);
+        return true;
+    }
+
+    private void resetNode(int node, int cell) {
+        move[node] = (short) cell;
+        childCount[node] = 0;
+        visits.set(node, 0);
+        score.set(node, 0);
+        childStart.set(node, UNEXPANDED);
+    }
+
+    // random moves to the end of the game on the worker's own board; returns the winner (0 = draw)
+    private static int playout(Board board, int player, SplittableRandom rnd) {
+        int size = board.getSize();
+        int[] free = new int[size * size];
+        int n = 0;
+        for (int cell = 0; cell < size * size; cell++) if (board.getCell(cell / size, cell % size) == 0) free[n++] = cell;
+        int played = 0, winner = 0;
+        while (n > 0) {
+            int i = rnd.nextInt(n);
+            int cell = free[i];
+            free[i] = free[--n];
+            free[n] = cell;
+            board.makeMove(cell / size, cell % size, player);
+            played++;
+            if (board.checkWin(player)) { winner = player; break; }
+            player = 3 - player;
+        }
+        for (int i = 0; i < played; i++) {
+            int cell = free[n + i];   // most recent first
+            board.undoMove(cell / size, cell % size);
+        }
+        return winner;
+    }
+}
@@ -0,0 +1,29 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import java.util.random.RandomGenerator;
+
+// A computer player. Engines may search on the board they are given but must leave it as they found it.
+public interface MoveEngine {
+
+    // {row, col} of the chosen move for player (1 or 2), or null if the engine has no answer
+    int[] chooseMove(Board board, int player);
+
+    // what the last chooseMove cost, for SearchTelemetry: positions examined (playouts for MCTS)
+    // and the deepest ply looked at; read them on the thread that made the call
+    default long lastNodes() { return 0; }
+
+    default int lastDepth() { return 0; }
+
+    // stops the worker threads the engine owns; it must not be used afterwards
+    default void close() {}
+
+    // the engine behind a difficulty level, from its MoveEngineProvider
+    static MoveEngine forLevel(int level, RandomGenerator rng, int searchThreads) {
+        return forLevel(level, rng, searchThreads, 1);
+    }
+
+    // budgetScale stretches the playout and time budget of the Monte Carlo searches
+    static MoveEngine forLevel(int level, RandomGenerator rng, int searchThreads, double budgetScale) {
+        return MoveEngines.create(level, rng, searchThreads, budgetScale);
+    }
+}
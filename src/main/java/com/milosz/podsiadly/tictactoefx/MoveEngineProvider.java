@@ -0,0 +1,26 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import java.util.random.RandomGenerator;
+
+// One difficulty level of the computer player, found with ServiceLoader (see MoveEngines). The
+// built-in levels are declared in module-info; any module on the module path that provides this
+// service adds its own. A provider is only a factory: the engine, with whatever tables or trees it
+// builds, is created the first time its level is picked.
+public interface MoveEngineProvider {
+
+    // the number the setup dialog, the server protocol and the game log use; 1 is the weakest
+    int level();
+
+    // shown in the setup dialog; a level without a name of its own is shown by number
+    default String displayName() {
+        Msg name = Msg.level(level());
+        return name != null ? Translations.get(name) : Translations.get(Msg.LEVEL) + " " + level();
+    }
+
+    // whether the engine is worth running on the human's time (see Ponderer): true for searches
+    // that get better with more time, false for levels that answer at once anyway
+    default boolean ponders() { return false; }
+
+    // budgetScale stretches the playout and time budget of engines that have one
+    MoveEngine create(RandomGenerator rng, int searchThreads, double budgetScale);
+}
@@ -0,0 +1,114 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import java.util.Arrays;
+import java.util.ServiceLoader;
+import java.util.TreeMap;
+import java.util.random.RandomGenerator;
+
+// The difficulty levels on offer: every MoveEngineProvider ServiceLoader finds, by level. The
+// lookup runs once, on first use, and only instantiates the providers, so no engine class is
+// loaded until its level is asked for. The built-in levels are the nested providers below.
+public final class MoveEngines {
+
+    private MoveEngines() {}
+
+    // initialised on first access to Levels, not when MoveEngines is loaded
+    private static final class Levels {
+        static final MoveEngineProvider[] BY_LEVEL = load();
+
+        private static MoveEngineProvider[] load() {
+            TreeMap<Integer, MoveEngineProvider> found = new TreeMap<>();
+            for (MoveEngineProvider p : ServiceLoader.load(MoveEngineProvider.class, MoveEngines.class.getClassLoader())) {
+                if (p.level() < 1 || p.level() > GameLog.MAX_DIFFICULTY) continue;   // the log has no room for it
+                // first one wins, so a duplicate from another module can't replace a built-in level
+                found.putIfAbsent(p.level(), p);
+            }
+            MoveEngineProvider[] byLevel = new MoveEngineProvider[found.isEmpty() ? 1 : found.lastKey() + 1];
+            found.forEach((level, p) -> byLevel[level] = p);
+            return byLevel;
+        }
+    }
+
+    // the provider of level, or null if no module provides it
+    public static MoveEngineProvider provider(int level) {
+        MoveEngineProvider[] byLevel = Levels.BY_LEVEL;
+        return level > 0 && level < byLevel.length ? byLevel[level] : null;
+    }
+
+    public static boolean exists(int level) { return provider(level) != null; }
+
+    // the levels on offer, weakest first
+    public static int[] levels() {
+        MoveEngineProvider[] byLevel = Levels.BY_LEVEL;
+        return Arrays.stream(byLevel).filter(p -> p != null).mapToInt(MoveEngineProvider::level).toArray();
+    }
+
+    // the highest level number; arrays indexed by level need maxLevel() + 1 slots
+    public static int maxLevel() { return Levels.BY_LEVEL.length - 1; }
+
+    public static MoveEngine create(int level, RandomGenerator rng, int searchThreads, double budgetScale) {
+        MoveEngineProvider p = provider(level);
+        if (p == null) throw new IllegalArgumentException("No engine for level " + level + ".");
+        return p.create(rng, searchThreads, budgetScale);
+    }
+
+    public static final class Easy implements MoveEngineProvider {
+        public Easy() {}
+
+        @Override
+        public int level() { return 1; }
+
+        @Override
+        public MoveEngine create(RandomGenerator rng, int searchThreads, double budgetScale) { return new RandomMoveEngine(rng); }
+    }
+
+    public static final class Medium implements MoveEngineProvider {
+        public Medium() {}
+
+        @Override
+        public int level() { return 2; }
+
+        @Override
+        public MoveEngine create(RandomGenerator rng, int searchThreads, double budgetScale) { return new WinBlockMoveEngine(rng); }
+    }
+
+    public static final class Hard implements MoveEngineProvider {
+        public Hard() {}
+
+        @Override
+        public int level() { return 3; }
+
+        @Override
+        public boolean ponders() { return true; }
+
+        @Override
+        public MoveEngine create(RandomGenerator rng, int searchThreads, double budgetScale) {
+            return new PerfectPlayEngine(rng, searchThreads, budgetScale);
+        }
+    }
+
+    public static final class Expert implements MoveEngineProvider {
+        public Expert() {}
+
+        @Override
+        public int level() { return 4; }
+
+        @Override
+        public boolean ponders() { return true; }
+
+        @Override
+        public MoveEngine create(RandomGenerator rng, int searchThreads, double budgetScale) {
+            return new MctsMoveEngine(searchThreads, budgetScale);
+        }
+    }
+
+    public static final class Learned implements MoveEngineProvider {
+        public Learned() {}
+
+        @Override
+        public int level() { return 5; }
+
+        @Override
+        public MoveEngine create(RandomGenerator rng, int searchThreads, double budgetScale) { return new PolicyMoveEngine(rng); }
+    }
+}
@@ -0,0 +1,89 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.random.RandomGenerator;
+
+// Perfect-play answers for every 3x3 position, precomputed by MoveTableGenerator.
+//
+// Layout (big-endian): int magic, byte version, byte size, byte winLength, byte reserved,
+// int entry count, then one 3-byte entry per position indexed by sum(cell * 3^i):
+// a short with bit i set for every optimal move i, and a signed byte value for the side
+// to move (+d wins in d plies, -d loses in d plies, 0 draw). A zero move mask marks
+// positions that are finished or can't arise when player 1 starts.
+public class MoveTable {
+    public static final String RESOURCE = "perfect-play.bin";
+    static final int MAGIC = 0x54545442;   // "TTTB"
+    static final int VERSION = 1;
+    static final int HEADER = 12;
+    static final int ENTRY = 3;
+
+    private final ByteBuffer buf;
+    private final int size;
+
+    private MoveTable(ByteBuffer buf) {
+        if (buf.getInt(0) != MAGIC || buf.get(4) != VERSION) throw new IllegalArgumentException("Not a move table.");
+        this.buf = buf;
+        this.size = buf.get(5);
+        int count = buf.getInt(8);
+        if (buf.capacity() < HEADER + (long) count * ENTRY) throw new IllegalArgumentException("Truncated move table.");
+    }
+
+    // the table bundled with the app; read once into a direct buffer since jlink images can't map resources
+    public static MoveTable loadDefault() {
+        try (InputStream in = MoveTable.class.getResourceAsStream(RESOURCE)) {
+            if (in == null) return null;
+            byte[] bytes = in.readAllBytes();
+            ByteBuffer buf = ByteBuffer.allocateDirect(bytes.length);
+            buf.put(bytes).flip();
+            return new MoveTable(buf.asReadOnlyBuffer());
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public static MoveTable map(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new MoveTable(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()));
+        }
+    }
+
+    public boolean supports(Board board) {
+        return board.getSize() == size && board.getWinLength() == buf.get(6);
+    }
+
+    public static int index(Board board) {
+        int size = board.getSize();
+        int index = 0;
+        for (int cell = size * size - 1; cell >= 0; cell--) index = index * 3 + board.getCell(cell / size, cell % size);
+        return index;
+    }
+
+    // bit i set for each optimal move i, or 0 if the position isn't in the table / it isn't player's turn
+    public int bestMoves(Board board, int player) {
+        if (!supports(board) || player != sideToMove(board)) return 0;
+        return buf.getShort(HEADER + index(board) * ENTRY) & 0xFFFF;
+    }
+
+    public int value(Board board) {
+        return buf.get(HEADER + index(board) * ENTRY + 2);
+    }
+
+    public int[] bestMove(Board board, int player, RandomGenerator rng) {
+        int mask = bestMoves(board, player);
+        if (mask == 0) return null;
+        int pick = rng.nextInt(Integer.bitCount(mask));
+        for (int i = 0; i < pick; i++) mask &= mask - 1;
+        int cell = Integer.numberOfTrailingZeros(mask);
+        return new int[]{cell / size, cell % size};
+    }
+
+    public int entryCount() { return buf.getInt(8); }
+
+    // player 1 always opens, so the side to move follows from the stone count
+    static int sideToMove(Board board) { return board.getMoveCount() % 2 == 0 ? 1 : 2; }
+}
@@ -0,0 +1,136 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+// Build-time tool: solves every position reachable from the empty 3x3 board and writes the
+// MoveTable resource (./gradlew generateMoveTable), or checks a table file against the live
+// AlphaBetaSearch (--verify; MoveTableTest does the same for the bundled table).
+public class MoveTableGenerator {
+    private static final int SIZE = 3, CELLS = SIZE * SIZE;
+    private static final int UNSOLVED = Integer.MIN_VALUE;
+
+    private final int[] pow3 = new int[CELLS + 1];
+    private final int[] values;
+    private final int[] masks;
+    private int reachable;
+
+    MoveTableGenerator() {
+        pow3[0] = 1;
+        for (int i = 1; i <= CELLS; i++) pow3[i] = pow3[i - 1] * 3;
+        values = new int[pow3[CELLS]];
+        masks = new int[pow3[CELLS]];
+        Arrays.fill(values, UNSOLVED);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 2 && args[0].equals("--verify")) {
+            int checked = verify(MoveTable.map(Paths.get(args[1])));
+            System.out.println("move table verified: " + checked + " positions match the search");
+            return;
+        }
+        if (args.length != 1) {
+            System.err.println("usage: MoveTableGenerator <out-file> | --verify <table-file>");
+            System.exit(2);
+        }
+        MoveTableGenerator gen = new MoveTableGenerator();
+        gen.solve(new Board(), 1, 0);
+        Path out = Paths.get(args[0]);
+        gen.write(out);
+        System.out.println("wrote " + gen.reachable + " positions to " + out + " (" + Files.size(out) + " bytes)");
+    }
+
+    // value for the side to move: +d wins in d plies, -d loses in d plies, 0 draw
+    private int solve(Board board, int player, int index) {
+        if (values[index] != UNSOLVED) return values[index];
+        reachable++;
+        int best = UNSOLVED, mask = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            int r = cell / SIZE, c = cell % SIZE;
+            if (!board.isCellAvailable(r, c)) continue;
+            board.makeMove(r, c, player);
+            int child = index + player * pow3[cell];
+            int v;
+            if (board.checkWin(player)) v = 1;
+            else if (board.isFull()) v = 0;
+            else v = fromChild(solve(board, 3 - player, child));
+            board.undoMove(r, c);
+            if (best == UNSOLVED || better(v, best)) { best = v; mask = 1 << cell; }
+            else if (v == best) mask |= 1 << cell;
+        }
+        values[index] = best;
+        masks[index] = mask;
+        return best;
+    }
+
+    private static int fromChild(int v) { return v > 0 ? -(v + 1) : v < 0 ? -v + 1 : 0; }
+
+    // quicker wins first, then draws, then the slowest losses
+    private static boolean better(int a, int b) {
+        if (a > 0 && b > 0) return a < b;
+        if (a < 0 && b < 0) return a < b;
+        return Integer.signum(a) > Integer.signum(b);
+    }
+
+    private void write(Path out) throws IOException {
+        if (out.getParent() != null) Files.createDirectories(out.getParent());
+        try (OutputStream os = Files.newOutputStream(out);
+             DataOutputStream data = new DataOutputStream(new BufferedOutputStream(os))) {
+            data.writeInt(MoveTable.MAGIC);
+            data.writeByte(MoveTable.VERSION);
+            data.writeByte(SIZE);
+            data.writeByte(SIZE);
+            data.writeByte(0);
+            data.writeInt(values.length);
+            for (int i = 0; i < values.length; i++) {
+                data.writeShort(masks[i]);
+                data.writeByte(values[i] == UNSOLVED ? 0 : values[i]);
+            }
+        }
+    }
+
+    // every non-terminal position must agree with a fresh search on outcome, distance and move;
+    // returns the number of positions checked
+    static int verify(MoveTable table) {
+        MoveTableGenerator gen = new MoveTableGenerator();
+        gen.solve(new Board(), 1, 0);
+        AlphaBetaSearch search = new AlphaBetaSearch();
+        int checked = 0;
+        for (int index = 0; index < gen.masks.length; index++) {
+            if (gen.masks[index] == 0) continue;
+            Board board = gen.decode(index);
+            int player = MoveTable.sideToMove(board);
+            int mask = table.bestMoves(board, player);
+            int value = table.value(board);
+            AlphaBetaSearch.SearchResult res = search.search(board, player);
+            int expected = res.outcome() * res.plies();
+            if (mask != gen.masks[index] || value != expected || (mask & (1 << (res.row * SIZE + res.col))) == 0) {
+                throw new IllegalStateException("move table disagrees with search at position " + index
+                        + ": table " + Integer.toBinaryString(mask) + "/" + value + ", search " + res);
+            }
+            checked++;
+        }
+        return checked;
+    }
+
+    private Board decode(int index) {
+        Board board = new Board();
+        int[] p1 = new int[CELLS], p2 = new int[CELLS];
+        int n1 = 0, n2 = 0;
+        for (int cell = 0; cell < CELLS; cell++, index /= 3) {
+            if (index % 3 == 1) p1[n1++] = cell;
+            else if (index % 3 == 2) p2[n2++] = cell;
+        }
+        for (int i = 0; i < n1; i++) {
+            board.makeMove(p1[i] / SIZE, p1[i] % SIZE, 1);
+            if (i < n2) board.makeMove(p2[i] / SIZE, p2[i] % SIZE, 2);
+        }
+        return board;
+    }
+}
@@ -0,0 +1,49 @@
+package com.milosz.podsiadly.tictactoefx;
+
+// Every user-visible message. The key is looked up in messages.properties (English, and the
+// fallback for anything a translation lacks) and messages_<language>.properties.
+public enum Msg {
+    CURRENT_PLAYER("status.currentPlayer"),
+    COMPUTER_THINKING("status.thinking"),
+    SAVE_FAILED("status.saveFailed"),
+    LOAD_FAILED("status.loadFailed"),
+    WINS("result.wins"),
+    DRAW("result.draw"),
+    GAME_OVER("result.title"),
+    DRAWS("score.draws"),
+    NEW_ROUND("button.newRound"),
+    RESET_SCORES("button.resetScores"),
+    SETUP("button.setup"),
+    OK("button.ok"),
+    CANCEL("button.cancel"),
+    EXIT("button.exit"),
+    COMPUTER("player.computer"),
+    PLAYER_1("player.1"),
+    PLAYER_2("player.2"),
+    GAME_PREFERENCES("setup.header"),
+    LANGUAGE("setup.language"),
+    CHOOSE_LANGUAGE("setup.chooseLanguage"),
+    MODE("setup.mode"),
+    PLAYER_VS_COMPUTER("setup.playerVsComputer"),
+    PLAYER_VS_PLAYER("setup.playerVsPlayer"),
+    PLAYERS("setup.players"),
+    DIFFICULTY("setup.difficulty"),
+    LEVEL("setup.level"),
+    BOARD("setup.board"),
+    BOARD_SIZE("setup.boardSize"),
+    WIN_LENGTH("setup.winLength"),
+    EASY("difficulty.1"),
+    MEDIUM("difficulty.2"),
+    HARD("difficulty.3"),
+    EXPERT("difficulty.4"),
+    LEARNED("difficulty.5");
+
+    private static final Msg[] LEVELS = {EASY, MEDIUM, HARD, EXPERT, LEARNED};
+
+    final String key;
+
+    Msg(String key) { this.key = key; }
+
+    // the name of built-in difficulty level 1..5, null for any other
+    public static Msg level(int level) { return level >= 1 && level <= LEVELS.length ? LEVELS[level - 1] : null; }
+}
@@ -0,0 +1,173 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Alpha-beta on a fork-join pool using Young Brothers Wait: at each split node near the root the
+// first (best-ordered) child is searched alone to establish a bound, then its younger brothers are
+// forked with that bound and stolen by idle workers. Below the split plies every worker runs the
+// sequential AlphaBetaSearch on its own board copy; all workers share one lock-free table.
+public class ParallelSearch {
+    private static final int WIN = AlphaBetaSearch.WIN;
+
+    private final int parallelism;
+    private final int splitPlies;
+    private final ForkJoinPool pool;
+    private final TranspositionTable table;
+    private final AtomicBoolean abort = new AtomicBoolean();
+    private final ThreadLocal<AlphaBetaSearch> workers;
+    private final AlphaBetaSearch sequential;
+    private final LongAdder nodes = new LongAdder();
+    private final AtomicInteger maxPly = new AtomicInteger();
+    private int size, winLength;
+    private int[] order;
+
+    public ParallelSearch(int parallelism) { this(parallelism, 2, 20); }
+
+    public ParallelSearch(int parallelism, int splitPlies, int log2TableEntries) {
+        this.parallelism = Math.max(1, parallelism);
+        this.splitPlies = splitPlies;
+        this.table = new TranspositionTable(log2TableEntries);
+        this.pool = this.parallelism > 1 ? new ForkJoinPool(this.parallelism) : null;
+        // the initialiser captures locals, not this, so no half-built ParallelSearch escapes
+        TranspositionTable shared = table;
+        AtomicBoolean stop = abort;
+        this.workers = ThreadLocal.withInitial(() -> new AlphaBetaSearch(shared, stop));
+        this.sequential = new AlphaBetaSearch(table, abort);
+    }
+
+    public int getParallelism() { return parallelism; }
+
+    public synchronized AlphaBetaSearch.SearchResult search(Board board, int player) {
+        return search(board, player, AlphaBetaSearch.UNLIMITED);
+    }
+
+    // Cancellable from the calling thread: an interrupt stops every worker within ~1k nodes.
+    public synchronized AlphaBetaSearch.SearchResult search(Board board, int player, int maxDepth) {
+        if (board.getSize() != size || board.getWinLength() != winLength) {
+            size = board.getSize();
+            winLength = board.getWinLength();
+            order = AlphaBetaSearch.staticOrder(size, winLength);
+            table.clear();
+        }
+        if (pool == null) return sequential.search(board, player, maxDepth);
+
+        abort.set(false);
+        nodes.reset();
+        maxPly.set(0);
+        SplitTask root = new SplitTask(board.copy(), player, 0, maxDepth, -WIN - 1, WIN + 1);
+        ForkJoinTask<Integer> running = pool.submit(root);
+        try {
+            int value = running.get();
+            if (root.bestCell < 0) return null;
+            return new AlphaBetaSearch.SearchResult(root.bestCell / size, root.bestCell % size, value, nodes.sum(), maxPly.get());
+        } catch (InterruptedException e) {
+            abort.set(true);
+            Thread.currentThread().interrupt();
+            throw new CancellationException("search cancelled");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            abort.set(true);   // let stragglers from a cancelled or cut-off split unwind quickly
+            running.quietlyJoin();
+        }
+    }
+
+    public void shutdown() {
+        if (pool != null) pool.shutdownNow();
+    }
+
+    private final class SplitTask extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final Board board;
+        private final int player, ply, depthLeft;
+        private int alpha;
+        private final int beta;
+        int bestCell = -1;
+
+        SplitTask(Board board, int player, int ply, int depthLeft, int alpha, int beta) {
+            this.board = board; this.player = player; this.ply = ply;
+            this.depthLeft = depthLeft; this.alpha = alpha; this.beta = beta;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (ply > 0) {
+                if (board.checkWin(3 - player)) { nodes.increment(); return -(WIN - ply); }
+                if (board.isFull()) { nodes.increment(); return 0; }
+                if (depthLeft <= 0) { nodes.increment(); return staticValue(board, player, ply); }
+                if (ply >= splitPlies || board.getSize() * board.getSize() - board.getMoveCount() <= 6) {
+                    AlphaBetaSearch worker = workers.get();
+                    int v = worker.searchNode(board, player, ply, depthLeft, alpha, beta);
+                    nodes.add(worker.getNodes());
+                    maxPly.accumulateAndGet(worker.getMaxPly(), Math::max);
+                    return v;
+                }
+                nodes.increment();
+            }
+
+            int[] moves = new int[order.length];
+            int n = 0;
+            for (int cell : order) if (board.getCell(cell / size, cell % size) == 0) moves[n++] = cell;
+            if (n == 0) return 0;
+
+            // eldest brother first, alone
+            int best = -child(moves[0], alpha).compute();
+            bestCell = moves[0];
+            if (best > alpha) alpha = best;
+            if (alpha >= beta || n == 1) return best;
+
+            // then all younger brothers in parallel with the bound it produced
+            SplitTask[] younger = new SplitTask[n - 1];
+            for (int i = 1; i < n; i++) younger[i - 1] = child(moves[i], alpha);
+            invokeAll(younger);
+            for (int i = 1; i < n; i++) {
+                int v = -younger[i - 1].join();
+                if (v > best) { best = v; bestCell = moves[i]; }
+            }
+            return best;
+        }
+
+        // same leaf score as AlphaBetaSearch; only reached when the depth limit is inside the split plies
+        private int staticValue(Board board, int player, int ply) {
+            LineEvaluator lines = new LineEvaluator(size, winLength);
+            lines.reset(board);
+            return lines.canWin(player) ? WIN - (ply + 1) : lines.evaluate(player);
+        }
+
+        private SplitTask child(int cell, int currentAlpha) {
+            Board next = board.copy();
+            next.makeMove(cell / size, cell % size, player);
+            return new SplitTask(next, 3 - player, ply + 1, depthLeft - 1, -beta, -currentAlpha);
+        }
+    }
+
+    // ParallelSearch <size> <winLength> [threads] [maxDepth]: reports the speedup over one thread
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int k = args.length > 1 ? Integer.parseInt(args[1]) : size;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int depth = args.length > 3 ? Integer.parseInt(args[3]) : AlphaBetaSearch.UNLIMITED;
+        Board board = new Board(size, k);
+
+        long t0 = System.nanoTime();
+        AlphaBetaSearch.SearchResult single = new AlphaBetaSearch(20).search(board, 1, depth);
+        long t1 = System.nanoTime();
+        ParallelSearch parallel = new ParallelSearch(threads);
+        AlphaBetaSearch.SearchResult multi = parallel.search(board, 1, depth);
+        long t2 = System.nanoTime();
+        parallel.shutdown();
+
+        System.out.printf("1 thread:   %s in %.1f ms%n", single, (t1 - t0) / 1e6);
+        System.out.printf("%d threads: %s in %.1f ms%n", threads, multi, (t2 - t1) / 1e6);
+        System.out.printf("speedup: %.2fx%n", (double) (t1 - t0) / (t2 - t1));
+    }
+}
@@ -0,0 +1,277 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.random.RandomGenerator;
+
+// A learned evaluation for k in a row, written by SelfPlayTrainer and played by PolicyMoveEngine.
+// Every k-long window of the board is read as a pattern of empty / own / opponent stones (base 3,
+// from one player's side), and a position is worth the sum of its windows' weights, clamped to
+// -1 (lost) .. +1 (won), to the player who just moved. A window read backwards is the same pattern, so both readings share
+// a weight. A move only changes the windows through its cell, so ranking the moves costs O(4k)
+// per free cell. Nothing depends on the board size: one table plays every board of its k.
+//
+// Layout (big-endian): int magic, byte version, byte winLength, short reserved, long seed, long
+// games trained, int weight count, then the weights as floats.
+public final class PatternPolicy {
+    static final int MAGIC = 0x54545450;   // "TTTP"
+    static final int VERSION = 1;
+    public static final int MAX_WIN_LENGTH = 8;   // 3^8 patterns stay a few KB
+
+    private static final Map<Integer, Optional<PatternPolicy>> LOADED = new ConcurrentHashMap<>();
+    private static final Map<Integer, int[]> FEATURES = new ConcurrentHashMap<>();
+
+    private final int winLength;
+    private final float[] weights;
+    private final long seed, games;
+
+    PatternPolicy(int winLength, float[] weights, long seed, long games) {
+        this.winLength = winLength;
+        if (weights.length != weightCount(winLength)) throw new IllegalArgumentException("Expected " + weightCount(winLength) + " weights.");
+        this.weights = weights;
+        this.seed = seed;
+        this.games = games;
+    }
+
+    // untrained: every move scores 0
+    static PatternPolicy empty(int winLength) { return new PatternPolicy(winLength, new float[weightCount(winLength)], 0, 0); }
+
+    public int getWinLength() { return winLength; }
+
+    public long getSeed() { return seed; }
+
+    public long getGames() { return games; }
+
+    public int weightCount() { return weights.length; }
+
+    float[] weights() { return weights; }
+
+    // The policy for k: a file in the policy directory (a local training run) takes precedence over
+    // the one bundled with the app. Null when there is neither; the answer is remembered.
+    public static PatternPolicy forWinLength(int k) {
+        if (k < 3 || k > MAX_WIN_LENGTH) return null;
+        return LOADED.computeIfAbsent(k, key -> {
+            Path file = directory().resolve(fileName(k));
+            try {
+                if (Files.isReadable(file)) return Optional.of(read(Files.newInputStream(file)));
+                InputStream bundled = PatternPolicy.class.getResourceAsStream(fileName(k));
+                return bundled == null ? Optional.empty() : Optional.of(read(bundled));
+            } catch (IOException | IllegalArgumentException e) {
+                return Optional.empty();
+            }
+        }).orElse(null);
+    }
+
+    // -Dtictactoe.policyDir, else ~/.tictactoefx/policy
+    public static Path directory() {
+        String dir = System.getProperty("tictactoe.policyDir");
+        return dir != null ? Paths.get(dir) : Paths.get(System.getProperty("user.home"), ".tictactoefx", "policy");
+    }
+
+    public static String fileName(int k) { return "policy-k" + k + ".bin"; }
+
+    static PatternPolicy read(InputStream stream) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(stream))) {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION) throw new IOException("Not a policy file.");
+            int k = in.readByte();
+            in.readShort();
+            long seed = in.readLong(), games = in.readLong();
+            int count = in.readInt();
+            if (k < 3 || k > MAX_WIN_LENGTH || count != weightCount(k)) throw new IOException("Policy file doesn't match its win length.");
+            float[] w = new float[count];
+            for (int i = 0; i < count; i++) w[i] = in.readFloat();
+            return new PatternPolicy(k, w, seed, games);
+        }
+    }
+
+    // written beside file and renamed over it, so a reader never sees half a table
+    void write(Path file) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeByte(winLength);
+            out.writeShort(0);
+            out.writeLong(seed);
+            out.writeLong(games);
+            out.writeInt(weights.length);
+            for (float w : weights) out.writeFloat(w);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static int weightCount(int k) {
+        int[] f = features(k);
+        int max = -1;
+        for (int i : f) max = Math.max(max, i);
+        return max + 1;
+    }
+
+    // dense weight index of every pattern, one per mirror pair
+    static int[] features(int k) {
+        return FEATURES.computeIfAbsent(k, key -> {
+            int[] f = new int[pow3(k)];
+            Arrays.fill(f, -1);
+            int next = 0;
+            for (int code = 0; code < f.length; code++) {
+                if (f[code] < 0) f[code] = f[reverse(code, k)] = next++;
+            }
+            return f;
+        });
+    }
+
+    private static int pow3(int n) {
+        int p = 1;
+        for (int i = 0; i < n; i++) p *= 3;
+        return p;
+    }
+
+    private static int digit(int code, int place) { return code / pow3(place) % 3; }
+
+    private static int reverse(int code, int k) {
+        int r = 0;
+        for (int i = 0; i < k; i++) r += digit(code, i) * pow3(k - 1 - i);
+        return r;
+    }
+
+    // The free cell whose position is worth most to player (ties broken by rng), or -1 when the
+    // board is full; that position's value goes into best[0] if best is given.
+    int bestCell(Position pos, int player, RandomGenerator rng, float[] best) {
+        return bestCell(pos, player, weights, rng, best);
+    }
+
+    // the same for a weight table still being trained
+    static int bestCell(Position pos, int player, float[] weights, RandomGenerator rng, float[] best) {
+        int cells = pos.getSize() * pos.getSize(), choice = -1, ties = 0;
+        float top = Float.NEGATIVE_INFINITY;
+        for (int cell = 0; cell < cells; cell++) {
+            if (!pos.isFree(cell)) continue;
+            float gain = pos.gain(cell, player, weights);
+            if (choice < 0 || gain > top) {
+                top = gain;
+                choice = cell;
+                ties = 1;
+            } else if (gain == top && rng.nextInt(++ties) == 0) {
+                choice = cell;
+            }
+        }
+        if (best != null) best[0] = choice < 0 ? 0 : clamp(pos.sum(player, weights) + top);
+        return choice;
+    }
+
+    static float clamp(float value) { return Math.max(-1, Math.min(1, value)); }
+
+    // A board seen through the policy's windows: per segment, the pattern code from each player's
+    // side, kept up to date by play/undo like a LineEvaluator. One per thread.
+    static final class Position {
+        private final int size, k;
+        private final LineEvaluator.Geometry geo;
+        private final int[] feature;
+        private final int[] pow3;
+        private final int[][] code;   // [player][segment]
+        private final int line;       // the code of a segment full of own stones
+        private final byte[] cells;
+
+        Position(int size, int k) {
+            this.size = size;
+            this.k = k;
+            this.geo = LineEvaluator.Geometry.of(size, k);
+            this.feature = PatternPolicy.features(k);
+            this.pow3 = new int[k];
+            for (int i = 0; i < k; i++) pow3[i] = PatternPolicy.pow3(i);
+            this.line = (PatternPolicy.pow3(k) - 1) / 2;
+            this.code = new int[3][geo.start.length];
+            this.cells = new byte[size * size];
+        }
+
+        int getSize() { return size; }
+
+        int getWinLength() { return k; }
+
+        boolean isFree(int cell) { return cells[cell] == 0; }
+
+        void clear() {
+            Arrays.fill(cells, (byte) 0);
+            Arrays.fill(code[1], 0);
+            Arrays.fill(code[2], 0);
+        }
+
+        void reset(Board board) {
+            clear();
+            for (int i = 0; i < board.getMoveCount(); i++) {
+                int cell = board.getMove(i);
+                play(cell, board.getCell(cell / size, cell % size));
+            }
+        }
+
+        // own stones are digit 1 and the opponent's digit 2, so each side has its own code
+        void play(int cell, int player) {
+            cells[cell] = (byte) player;
+            int[] through = geo.through[cell], offset = geo.offset[cell];
+            int[] own = code[player], other = code[3 - player];
+            for (int j = 0; j < through.length; j++) {
+                own[through[j]] += pow3[offset[j]];
+                other[through[j]] += 2 * pow3[offset[j]];
+            }
+        }
+
+        void undo(int cell, int player) {
+            cells[cell] = 0;
+            int[] through = geo.through[cell], offset = geo.offset[cell];
+            int[] own = code[player], other = code[3 - player];
+            for (int j = 0; j < through.length; j++) {
+                own[through[j]] -= pow3[offset[j]];
+                other[through[j]] -= 2 * pow3[offset[j]];
+            }
+        }
+
+        // whether player's stone in cell finished a line through it
+        boolean completes(int cell, int player) {
+            int[] own = code[player];
+            for (int s : geo.through[cell]) if (own[s] == line) return true;
+            return false;
+        }
+
+        // how much player's stone in the free cell would add to sum(player)
+        float gain(int cell, int player, float[] weights) {
+            int[] through = geo.through[cell], offset = geo.offset[cell], mine = code[player];
+            float g = 0;
+            for (int j = 0; j < through.length; j++) {
+                int c = mine[through[j]];
+                g += weights[feature[c + pow3[offset[j]]]] - weights[feature[c]];
+            }
+            return g;
+        }
+
+        // the weight sum of every window, from player's side; clamped, the position's value to player
+        float sum(int player, float[] weights) {
+            int[] mine = code[player];
+            float s = 0;
+            for (int c : mine) s += weights[feature[c]];
+            return s;
+        }
+
+        // the weight indexes sum(player) adds up, into out, leaving out the empty windows (their
+        // weight is never trained, so stays 0); returns how many
+        int features(int player, int[] out) {
+            int[] mine = code[player];
+            int n = 0;
+            for (int c : mine) if (c != 0) out[n++] = feature[c];
+            return n;
+        }
+
+        int segments() { return geo.start.length; }
+    }
+}
@@ -0,0 +1,91 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import java.util.random.RandomGenerator;
+
+// Hard: a solved EndgameTable when one has been generated for the board's shape (see
+// EndgameSolver), else the bundled move table when it covers the board, otherwise a full
+// alpha-beta search. Boards too big to solve while the player waits get Monte Carlo search instead.
+public class PerfectPlayEngine implements MoveEngine {
+    static final int MAX_SOLVED_CELLS = 16;
+
+    private static volatile MoveTable sharedTable;
+    private static volatile boolean tableLoaded;
+
+    private final RandomGenerator rng;
+    private final int searchThreads;
+    private final double budgetScale;
+    private final ParallelSearch search;
+    private MctsMoveEngine bigBoards;
+    private EndgameMoveEngine endgame;
+    private long lastNodes;
+    private int lastDepth;
+
+    public PerfectPlayEngine(RandomGenerator rng, int searchThreads) { this(rng, searchThreads, 1); }
+
+    public PerfectPlayEngine(RandomGenerator rng, int searchThreads, double budgetScale) {
+        this.rng = rng;
+        this.searchThreads = searchThreads;
+        this.budgetScale = budgetScale;
+        this.search = new ParallelSearch(searchThreads);
+    }
+
+    @Override
+    public int[] chooseMove(Board board, int player) {
+        int[] probed = probeEndgame(board, player);
+        if (probed != null) return probed;
+        if (board.getSize() * board.getSize() > MAX_SOLVED_CELLS) {
+            if (bigBoards == null) bigBoards = new MctsMoveEngine(searchThreads, budgetScale);
+            int[] mv = bigBoards.chooseMove(board, player);
+            lastNodes = bigBoards.lastNodes();
+            lastDepth = bigBoards.lastDepth();
+            return mv;
+        }
+        lastNodes = lastDepth = 0;
+        MoveTable table = table();
+        if (table != null) {
+            int[] mv = table.bestMove(board, player, rng);
+            if (mv != null) return mv;
+        }
+        // serialized inside ParallelSearch, so a cancelled search that is still unwinding can't overlap this one
+        AlphaBetaSearch.SearchResult res = search.search(board, player);
+        if (res == null) return null;
+        lastNodes = res.nodes;
+        lastDepth = res.depth;
+        return res.move();
+    }
+
+    private int[] probeEndgame(Board board, int player) {
+        EndgameTable table = board.getSize() <= EndgameTable.MAX_SIZE ? EndgameTable.forShape(board.getSize(), board.getWinLength()) : null;
+        if (table == null) return null;
+        if (endgame == null || !endgame.supports(board)) endgame = new EndgameMoveEngine(table, rng);
+        int[] mv = endgame.chooseMove(board, player);
+        lastNodes = endgame.lastNodes();
+        lastDepth = endgame.lastDepth();
+        return mv;
+    }
+
+    @Override
+    public long lastNodes() { return lastNodes; }
+
+    @Override
+    public int lastDepth() { return lastDepth; }
+
+    @Override
+    public void close() {
+        search.shutdown();
+        if (bigBoards != null) bigBoards.close();
+    }
+
+    // one read-only table for every engine instance
+    static MoveTable table() {
+        if (!tableLoaded) {
+            synchronized (PerfectPlayEngine.class) {
+                if (!tableLoaded) {
+                    sharedTable = MoveTable.loadDefault();
+                    tableLoaded = true;
+                }
+            }
+        }
+        return sharedTable;
+    }
+}
@@ -0,0 +1,39 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import java.util.random.RandomGenerator;
+
+// Learned: plays the best-scoring move of the PatternPolicy for the board's k, without search, so a
+// move costs a few microseconds on any board size. Boards whose k has no policy (k over
+// PatternPolicy.MAX_WIN_LENGTH, or no table trained) get the Medium win/block play instead.
+public class PolicyMoveEngine implements MoveEngine {
+    private final RandomGenerator rng;
+    private final WinBlockMoveEngine fallback;
+    private PatternPolicy.Position position;
+    private long lastNodes;
+
+    public PolicyMoveEngine(RandomGenerator rng) {
+        this.rng = rng;
+        this.fallback = new WinBlockMoveEngine(rng);
+    }
+
+    @Override
+    public int[] chooseMove(Board board, int player) {
+        int size = board.getSize(), k = board.getWinLength();
+        PatternPolicy policy = PatternPolicy.forWinLength(k);
+        if (policy == null) {
+            lastNodes = 1;
+            return fallback.chooseMove(board, player);
+        }
+        if (position == null || position.getSize() != size || position.getWinLength() != k) position = new PatternPolicy.Position(size, k);
+        position.reset(board);
+        int cell = policy.bestCell(position, player, rng, null);
+        lastNodes = size * size - board.getMoveCount();
+        return cell < 0 ? null : new int[]{cell / size, cell % size};
+    }
+
+    @Override
+    public long lastNodes() { return lastNodes; }
+
+    @Override
+    public int lastDepth() { return 1; }
+}
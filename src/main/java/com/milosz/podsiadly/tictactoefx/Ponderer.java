@@ -0,0 +1,179 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Thinks on the human's time: while the human is to move, searches the computer's answer to each
+// likely reply, most likely first, on one low-priority thread. When the computer's turn comes,
+// take() hands back the answer if the human played a reply that was already searched, waits for
+// it if that reply is the one being searched right now, and otherwise drops the work.
+//
+// The ponder engines are separate from the ones that play the computer's turn and get twice the
+// Monte Carlo budget, so a hit answers at once with a deeper search than the turn itself could
+// afford. They are built on the ponder thread, so their own worker threads inherit its priority.
+class Ponderer {
+    private static final double BUDGET_SCALE = 2;
+
+    private final int searchThreads;
+    private final ExecutorService thread = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "ponder");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+    private final MoveEngine[] engines = new MoveEngine[MoveEngines.maxLevel() + 1];   // touched only on the ponder thread
+    private final Random rng = new Random();
+    private Session session;
+
+    // a precomputed reply and what it cost
+    static final class Answer {
+        final int row, col;
+        final long nodes;
+        final int depth;
+        final long nanos;
+
+        Answer(int row, int col, long nodes, int depth, long nanos) {
+            this.row = row; this.col = col; this.nodes = nodes; this.depth = depth; this.nanos = nanos;
+        }
+
+        int[] move() { return new int[]{row, col}; }
+    }
+
+    // one stretch of pondering over one position
+    private static final class Session {
+        final Board base;
+        final int human, level;
+        final Map<Integer, Answer> answers = new ConcurrentHashMap<>();
+        volatile int current = -1;   // reply being searched
+        volatile int wanted = -1;    // reply the human actually played
+        Future<?> task;
+
+        Session(Board base, int human, int level) { this.base = base; this.human = human; this.level = level; }
+    }
+
+    Ponderer(int searchThreads) { this.searchThreads = searchThreads; }
+
+    // starts pondering position, where human is to move, for the computer playing at level
+    synchronized void start(Board position, int human, int level) {
+        stop();
+        Session s = new Session(position.copy(), human, level);
+        s.task = thread.submit(() -> ponder(s));
+        session = s;
+    }
+
+    synchronized void stop() {
+        if (session != null) session.task.cancel(true);
+        session = null;
+    }
+
+    void shutdown() {
+        stop();
+        thread.shutdownNow();
+    }
+
+    // The answer to now, the pondered position plus one human stone, or null when that reply was
+    // not reached. Blocks while the reply is still being searched, so call it off the FX thread.
+    Answer take(Board now) throws InterruptedException {
+        Session s;
+        int cell;
+        synchronized (this) {
+            s = session;
+            session = null;
+            if (s == null) return null;
+            cell = replyCell(s, now);
+            Answer done = cell < 0 ? null : s.answers.get(cell);
+            if (done != null || cell < 0 || s.current != cell) {
+                s.task.cancel(true);
+                return done;
+            }
+            s.wanted = cell;   // the ponder loop stops after this reply
+            // it may have finished it just before seeing the flag
+            Answer late = s.answers.get(cell);
+            if (late != null) {
+                s.task.cancel(true);
+                return late;
+            }
+        }
+        try {
+            s.task.get();
+        } catch (ExecutionException | CancellationException e) {
+            return null;
+        } catch (InterruptedException e) {
+            s.task.cancel(true);
+            throw e;
+        }
+        return s.answers.get(cell);
+    }
+
+    private void ponder(Session s) {
+        MoveEngine engine = engineFor(s.level);
+        Board board = s.base.copy();   // an interrupted search may leave stones behind; this copy is thrown away
+        int size = board.getSize();
+        for (int cell : likelyReplies(board, s.human)) {
+            if (s.wanted >= 0 || Thread.currentThread().isInterrupted()) return;
+            int r = cell / size, c = cell % size;
+            board.makeMove(r, c, s.human);
+            if (!board.checkWin(s.human) && !board.isFull()) {
+                s.current = cell;
+                long started = System.nanoTime();
+                int[] mv;
+                try {
+                    mv = engine.chooseMove(board, 3 - s.human);
+                } catch (CancellationException e) {
+                    return;
+                }
+                if (mv != null) s.answers.put(cell, new Answer(mv[0], mv[1], engine.lastNodes(), engine.lastDepth(), System.nanoTime() - started));
+            }
+            board.undoMove(r, c);
+        }
+    }
+
+    private MoveEngine engineFor(int level) {
+        if (engines[level] == null) engines[level] = MoveEngine.forLevel(level, rng, searchThreads, BUDGET_SCALE);
+        return engines[level];
+    }
+
+    // the free cell in which now differs from the pondered position, if that is all that changed
+    private static int replyCell(Session s, Board now) {
+        Board base = s.base;
+        int size = base.getSize();
+        if (now.getSize() != size || now.getWinLength() != base.getWinLength()
+                || now.getMoveCount() != base.getMoveCount() + 1) return -1;
+        int cell = now.getMove(now.getMoveCount() - 1);
+        if (now.getCell(cell / size, cell % size) != s.human) return -1;
+        for (int i = 0; i < base.getMoveCount(); i++) if (now.getMove(i) != base.getMove(i)) return -1;
+        return cell;
+    }
+
+    // Winning and blocking cells first, then the rest by closeness to the last stone (new stones
+    // mostly land near the action), ties broken by the search's static order.
+    static int[] likelyReplies(Board board, int human) {
+        int size = board.getSize(), k = board.getWinLength();
+        LineEvaluator lines = new LineEvaluator(size, k);
+        lines.reset(board);
+        int[] order = AlphaBetaSearch.staticOrder(size, k);
+        int last = board.getMoveCount() > 0 ? board.getMove(board.getMoveCount() - 1) : -1;
+        int win = lines.winningCell(human), block = lines.mustBlock(human);
+
+        long[] keyed = new long[order.length];
+        int n = 0;
+        for (int rank = 0; rank < order.length; rank++) {
+            int cell = order[rank];
+            if (board.getCell(cell / size, cell % size) != 0) continue;
+            int priority = cell == win ? 0 : cell == block ? 1 : 2;
+            int dist = last < 0 ? 0 : Math.max(Math.abs(cell / size - last / size), Math.abs(cell % size - last % size));
+            keyed[n++] = ((long) priority << 56) | ((long) dist << 32) | ((long) rank << 16) | cell;
+        }
+        Arrays.sort(keyed, 0, n);
+        int[] replies = new int[n];
+        for (int i = 0; i < n; i++) replies[i] = (int) (keyed[i] & 0xFFFF);
+        return replies;
+    }
+}
@@ -0,0 +1,283 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Headless batch analysis: one position per input line in, one result line per position out, in
+// the same order.
+//
+//   PositionAnalyzer [--in file|-] [--out file|-] [--threads N] [--batch 4096] [--window 4xN]
+//                    [--depth 4] [--win K]
+//
+// A position is its rows of . X O separated by / (the server's BOARD format), or all cells in one
+// run when the board is square, optionally followed by k and/or the side to move (X or O).
+// k defaults to --win, else to the board size up to 5; the side to move follows from the stones.
+// Blank lines and lines starting with # are skipped. Output is tab-separated:
+//
+//   position  side  best move (row col)  win / loss / draw / score <v>  plies
+//
+// where win, loss and draw are exact for the side to move and plies is the distance to the
+// result. Boards over PerfectPlayEngine.MAX_SOLVED_CELLS get a --depth search and a static
+// score instead. Finished positions read "X won", "O won" or "full"; bad lines "error <why>".
+//
+// A reader thread cuts the input into batches and hands them to the pool; the main thread writes
+// results batch by batch in input order. At most --window batches are in flight: when the writer
+// falls behind, the reader blocks, so memory stays bounded however long the input is.
+public class PositionAnalyzer {
+    private static final int MAX_CELLS = 64 * 64;
+
+    private final int winLength, depth;
+    private final MoveTable table = PerfectPlayEngine.table();
+    private final ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new);
+
+    public PositionAnalyzer(int winLength, int depth) {
+        this.winLength = winLength;
+        this.depth = depth;
+    }
+
+    // one batch worth of result lines
+    private static final class Batch {
+        final StringBuilder text;
+        final int lines;
+
+        Batch(StringBuilder text, int lines) { this.text = text; this.lines = lines; }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String inPath = "-", outPath = "-";
+        int threads = Runtime.getRuntime().availableProcessors(), batch = 4096, window = -1, depth = 4, win = 0;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--in" -> inPath = args[i + 1];
+                case "--out" -> outPath = args[i + 1];
+                case "--threads" -> threads = Integer.parseInt(args[i + 1]);
+                case "--batch" -> batch = Integer.parseInt(args[i + 1]);
+                case "--window" -> window = Integer.parseInt(args[i + 1]);
+                case "--depth" -> depth = Integer.parseInt(args[i + 1]);
+                case "--win" -> win = Integer.parseInt(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (window <= 0) window = 4 * threads;
+
+        // ISO-8859-1 both ways: one byte per char, and anything unexpected is echoed back unchanged
+        InputStream in = inPath.equals("-") ? new FileInputStream(FileDescriptor.in) : Files.newInputStream(Paths.get(inPath));
+        OutputStream out = outPath.equals("-") ? new FileOutputStream(FileDescriptor.out) : Files.newOutputStream(Paths.get(outPath));
+        long started = System.nanoTime();
+        long lines;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.ISO_8859_1), 1 << 16);
+             Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.ISO_8859_1), 1 << 16)) {
+            lines = new PositionAnalyzer(win, depth).run(reader, writer, threads, batch, window);
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.err.printf("%d positions in %.2f s: %.0f positions/s%n", lines, seconds, lines / seconds);
+    }
+
+    // analyses every line of in, writes the results to out in order, returns the number of positions
+    public long run(BufferedReader in, Writer out, int threads, int batchSize, int window) throws IOException, InterruptedException {
+        AtomicInteger ids = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "analyzer-" + ids.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        BlockingQueue<Future<Batch>> pending = new ArrayBlockingQueue<>(window);
+        Thread reader = new Thread(() -> read(in, pool, pending, batchSize), "analyzer-reader");
+        reader.setDaemon(true);
+        reader.start();
+        long lines = 0;
+        try {
+            while (true) {
+                Batch b = pending.take().get();
+                if (b == null) break;   // end of input
+                out.append(b.text);
+                lines += b.lines;
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            if (e.getCause() instanceof Error err) throw err;
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            reader.interrupt();
+            pool.shutdownNow();
+        }
+        return lines;
+    }
+
+    private void read(BufferedReader in, ExecutorService pool, BlockingQueue<Future<Batch>> pending, int batchSize) {
+        try {
+            String[] lines = new String[batchSize];
+            int n = 0;
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isEmpty() || line.charAt(0) == '#') continue;
+                lines[n++] = line;
+                if (n == batchSize) {
+                    submit(pool, pending, lines, n);
+                    lines = new String[batchSize];
+                    n = 0;
+                }
+            }
+            if (n > 0) submit(pool, pending, lines, n);
+            pending.put(CompletableFuture.completedFuture(null));
+        } catch (IOException | RuntimeException | Error e) {
+            // hand any failure to the writer, which would otherwise wait forever for the end marker
+            try {
+                pending.put(CompletableFuture.failedFuture(e));
+            } catch (InterruptedException ignored) {
+            }
+        } catch (InterruptedException e) {
+            // the writer gave up; nobody is waiting for more
+        }
+    }
+
+    // put() blocks while the window is full: that is the back-pressure on the reader
+    private void submit(ExecutorService pool, BlockingQueue<Future<Batch>> pending, String[] lines, int n) throws InterruptedException {
+        pending.put(pool.submit(() -> {
+            Worker w = workers.get();
+            StringBuilder sb = new StringBuilder(n * 32);
+            for (int i = 0; i < n; i++) {
+                w.analyze(lines[i], sb);
+                sb.append('\n');
+            }
+            return new Batch(sb, n);
+        }));
+    }
+
+    // appends the result columns for one position to out
+    public void analyze(String line, StringBuilder out) { workers.get().analyze(line, out); }
+
+    // per pool thread: a reusable board per shape and a search whose table carries over between lines
+    private final class Worker {
+        private final byte[] cells = new byte[MAX_CELLS];
+        private final AlphaBetaSearch search = new AlphaBetaSearch(20);
+        private Board board;
+        private LineEvaluator lines;
+        private int side;   // to move in the position load() parsed
+
+        void analyze(String line, StringBuilder out) {
+            out.append(line).append('\t');
+            String error = load(line);
+            if (error != null) {
+                out.append("-\t-\terror ").append(error).append("\t0");
+                return;
+            }
+            int size = board.getSize();
+            // a draw is only settled when the board fills up
+            int left = size * size - board.getMoveCount();
+            // the 3x3 table only has moves for live positions, so a hit needs no further checks
+            int mask = table != null ? table.bestMoves(board, side) : 0;
+            if (mask != 0) {
+                int cell = Integer.numberOfTrailingZeros(mask), v = table.value(board);
+                out.append(side == 1 ? 'X' : 'O').append('\t').append(cell / size).append(' ').append(cell % size).append('\t')
+                        .append(v > 0 ? "win" : v < 0 ? "loss" : "draw").append('\t').append(v == 0 ? left : Math.abs(v));
+                return;
+            }
+
+            lines.reset(board);
+            boolean xLine = lines.hasLine(1), oLine = lines.hasLine(2);
+            if (xLine && oLine) { out.append("-\t-\terror both players have a line\t0"); return; }
+            if (xLine || oLine) { out.append("-\t-\t").append(xLine ? "X won" : "O won").append("\t0"); return; }
+            if (board.isFull()) { out.append("-\t-\tfull\t0"); return; }
+
+            out.append(side == 1 ? 'X' : 'O').append('\t');
+            boolean exact = size * size <= PerfectPlayEngine.MAX_SOLVED_CELLS;
+            AlphaBetaSearch.SearchResult res = exact ? search.search(board, side) : search.search(board, side, depth);
+            out.append(res.row).append(' ').append(res.col).append('\t');
+            if (res.outcome() > 0) out.append("win\t").append(res.plies());
+            else if (res.outcome() < 0) out.append("loss\t").append(res.plies());
+            else if (exact) out.append("draw\t").append(left);
+            else out.append("score ").append(res.value).append('\t').append(depth);
+        }
+
+        // parses line onto board; null, or why the line is not a position
+        private String load(String line) {
+            int len = line.length(), i = 0, n = 0, rows = 1, rowLength = -1, rowStart = 0;
+            for (; i < len; i++) {
+                char ch = line.charAt(i);
+                if (ch == ' ' || ch == '\t') break;
+                if (ch == '/') {
+                    if (rowLength < 0) rowLength = n;
+                    else if (n - rowStart != rowLength) return "ragged rows";
+                    rowStart = n;
+                    rows++;
+                    continue;
+                }
+                if (n == MAX_CELLS) return "board too big";
+                switch (ch) {
+                    case '.', '-', '_' -> cells[n++] = 0;
+                    case 'X', 'x' -> cells[n++] = 1;
+                    case 'O', 'o' -> cells[n++] = 2;
+                    default -> { return "unexpected '" + ch + "'"; }
+                }
+            }
+            int size;
+            if (rowLength >= 0) {
+                if (n - rowStart != rowLength || rows != rowLength) return "board is not square";
+                size = rows;
+            } else {
+                size = (int) Math.round(Math.sqrt(n));
+                if (size * size != n) return "board is not square";
+            }
+            if (size < 3 || size > 64) return "size must be 3..64";
+
+            int k = winLength > 0 ? Math.min(winLength, size) : Math.min(size, 5);
+            int given = 0;
+            for (String token : i < len ? line.substring(i).trim().split("\\s+") : new String[0]) {
+                if (token.isEmpty()) continue;
+                if (token.equalsIgnoreCase("X")) given = 1;
+                else if (token.equalsIgnoreCase("O")) given = 2;
+                else {
+                    try {
+                        k = Integer.parseInt(token);
+                    } catch (NumberFormatException e) {
+                        return "unexpected '" + token + "'";
+                    }
+                    if (k < 3 || k > size) return "k must be 3.." + size;
+                }
+            }
+
+            if (board == null || board.getSize() != size || board.getWinLength() != k) {
+                board = new Board(size, k);
+                lines = new LineEvaluator(size, k);
+            } else {
+                // newest stone first, so each undo finds its stone at the end of the history
+                for (int m = board.getMoveCount() - 1; m >= 0; m--) {
+                    int cell = board.getMove(m);
+                    board.undoMove(cell / size, cell % size);
+                }
+            }
+            int x = 0, o = 0;
+            for (int cell = 0; cell < n; cell++) {
+                if (cells[cell] == 0) continue;
+                board.makeMove(cell / size, cell % size, cells[cell]);
+                if (cells[cell] == 1) x++;
+                else o++;
+            }
+            if (o > x || x > o + 1) return "X opens, so X has as many stones as O or one more";
+            side = x == o ? 1 : 2;
+            if (given != 0 && given != side) return "it is not " + (given == 1 ? "X" : "O") + "'s turn";
+            return null;
+        }
+    }
+}
@@ -0,0 +1,556 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+// Per-player results on disk, keyed by (name, kind, difficulty, opponent).
+//
+// profiles.db is an 8-byte header (int magic, byte version, 3 reserved) followed by fixed-size
+// records sorted by their key bytes, so a lookup is a binary search of positional reads. Every
+// player has a TOTAL row, plus one row per human opponent and one per computer difficulty:
+//   name[32] kind[1] difficulty[1] opponent[32]   key, UTF-8, zero padded
+//   int wins, int losses, int draws, long last played (epoch millis), 10 reserved bytes
+// Counter updates are written in place, but only after the new rows are forced to
+// profiles.journal (int magic, int count, the rows, CRC32 of all that). A crash that tears a row
+// is redone from the journal when the store is next opened; a torn journal means the file wasn't
+// touched yet and is dropped. New keys are merged in by streaming the file into a temp file that
+// is renamed over the old one, so a crash never leaves a half-sorted file.
+// All writes run on one background thread; lookups may run on any thread.
+public class ProfileStore implements AutoCloseable {
+    public static final String FILE = "profiles.db";
+    public static final String LEGACY_FILE = "score.properties";   // the six counters kept before profiles
+    public static final String JOURNAL_FILE = "profiles.journal";
+    public static final int TOTAL = 0, VS_HUMAN = 1, VS_COMPUTER = 2;
+    public static final int WIN = 1, LOSS = 2, DRAW = 0;
+    static final int MAGIC = 0x54545450;   // "TTTP"
+    static final int VERSION = 1;
+    static final int HEADER = 8;
+    static final int NAME = 32;
+    static final int KEY = NAME + 2 + NAME;
+    static final int RECORD = 96;
+    static final int JOURNAL_MAGIC = 0x5454544A;   // "TTTJ"
+    private static final int CHUNK = RECORD * 1024;
+
+    private final Path dir;
+    private final Path file;
+    private final Object fileLock = new Object();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "profile-writer");
+        t.setDaemon(true);
+        return t;
+    });
+    private volatile Consumer<IOException> errorHandler = e -> {};
+    private FileChannel channel, journal;
+    // games waiting for the writer; it takes them all at once, so a burst costs one merge
+    private final ConcurrentLinkedQueue<Delta> queued = new ConcurrentLinkedQueue<>();
+
+    public static final class Profile {
+        public final String name, opponent;
+        public final int kind, difficulty;
+        public final int wins, losses, draws;
+        public final long lastPlayed;
+
+        Profile(String name, int kind, int difficulty, String opponent, int wins, int losses, int draws, long lastPlayed) {
+            this.name = name; this.kind = kind; this.difficulty = difficulty; this.opponent = opponent;
+            this.wins = wins; this.losses = losses; this.draws = draws; this.lastPlayed = lastPlayed;
+        }
+
+        public int games() { return wins + losses + draws; }
+
+        @Override
+        public String toString() {
+            String against = kind == TOTAL ? "overall" : kind == VS_HUMAN ? "vs " + opponent : "vs computer level " + difficulty;
+            return String.format("%s %s: %d wins, %d losses, %d draws", name, against, wins, losses, draws);
+        }
+    }
+
+    public ProfileStore() { this(Paths.get(System.getProperty("user.home"), ".tictactoefx")); }
+
+    public ProfileStore(Path dir) {
+        this.dir = dir;
+        this.file = dir.resolve(FILE);
+    }
+
+    public Path getFile() { return file; }
+
+    // called on the writer thread with every failed write; the default ignores them
+    public void setErrorHandler(Consumer<IOException> handler) {
+        this.errorHandler = handler == null ? e -> {} : handler;
+    }
+
+    // O(log n) lookup; a key that was never played comes back as an all-zero profile
+    public Profile get(String name, int kind, int difficulty, String opponent) throws IOException {
+        byte[] key = key(name, kind, difficulty, opponent);
+        synchronized (fileLock) {
+            // don't create the file just to read from it
+            long i = channel == null && Files.notExists(file) ? -1 : find(channel(), key);
+            if (i < 0) return new Profile(name, kind, difficulty, opponent == null ? "" : opponent, 0, 0, 0, 0);
+            return decode(read(channel, i));
+        }
+    }
+
+    public Profile getTotal(String name) throws IOException { return get(name, TOTAL, 0, ""); }
+
+    public Profile getVsHuman(String name, String opponent) throws IOException { return get(name, VS_HUMAN, 0, opponent); }
+
+    public Profile getVsComputer(String name, int difficulty) throws IOException { return get(name, VS_COMPUTER, difficulty, ""); }
+
+    // The same lookup on the writer thread, after every update handed over before it, so a caller
+    // on the FX thread never waits on the disk.
+    public CompletableFuture<Profile> getAfterWrites(String name, int kind, int difficulty, String opponent) {
+        CompletableFuture<Profile> result = new CompletableFuture<>();
+        try {
+            writer.execute(() -> {
+                try {
+                    result.complete(get(name, kind, difficulty, opponent));
+                } catch (IOException e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    // Books one finished game for both sides (the computer has no profile). result is from x's side: WIN, LOSS or DRAW.
+    public void recordGame(String x, String o, boolean vsComputer, int difficulty, int result) {
+        long now = System.currentTimeMillis();
+        int[] dx = delta(result), dO = delta(result == WIN ? LOSS : result == LOSS ? WIN : DRAW);
+        List<Delta> deltas = new ArrayList<>();
+        deltas.add(new Delta(key(x, TOTAL, 0, ""), dx, now));
+        if (vsComputer) {
+            deltas.add(new Delta(key(x, VS_COMPUTER, difficulty, ""), dx, now));
+        } else {
+            deltas.add(new Delta(key(x, VS_HUMAN, 0, o), dx, now));
+            deltas.add(new Delta(key(o, TOTAL, 0, ""), dO, now));
+            deltas.add(new Delta(key(o, VS_HUMAN, 0, x), dO, now));
+        }
+        queued.addAll(deltas);
+        submit(this::drain);
+    }
+
+    // Clears the head-to-head rows of one matchup and takes them back out of the players' totals.
+    public void resetMatch(String x, String o, boolean vsComputer, int difficulty) {
+        submit(() -> {
+            drain();
+            List<Delta> deltas = new ArrayList<>();
+            resetRow(deltas, x, vsComputer ? key(x, VS_COMPUTER, difficulty, "") : key(x, VS_HUMAN, 0, o));
+            if (!vsComputer) resetRow(deltas, o, key(o, VS_HUMAN, 0, x));
+            apply(deltas);
+        });
+    }
+
+    // One-time import of score.properties from before the profile store. It had no names, so its
+    // PvP results go to p1 against p2 and its games against the computer to p1 at difficulty (the
+    // players and level saved in the setup). The file is then renamed to score.properties.imported.
+    public void importLegacyScores(String p1, String p2, int difficulty) {
+        submit(() -> {
+            Path legacy = dir.resolve(LEGACY_FILE);
+            if (Files.notExists(legacy)) return;
+            Properties props = new Properties();
+            try (InputStream in = Files.newInputStream(legacy)) {
+                props.load(in);
+            }
+            long time = Files.getLastModifiedTime(legacy).toMillis();
+            int[] pvp = {count(props, "pvp.p1Wins"), count(props, "pvp.p2Wins"), count(props, "pvp.draws")};
+            int[] pvc = {count(props, "pvc.playerWins"), count(props, "pvc.computerWins"), count(props, "pvc.draws")};
+            List<Delta> deltas = new ArrayList<>();
+            if (pvp[0] + pvp[1] + pvp[2] > 0) {
+                int[] mirrored = {pvp[1], pvp[0], pvp[2]};
+                deltas.add(new Delta(key(p1, TOTAL, 0, ""), pvp, time));
+                deltas.add(new Delta(key(p1, VS_HUMAN, 0, p2), pvp, time));
+                deltas.add(new Delta(key(p2, TOTAL, 0, ""), mirrored, time));
+                deltas.add(new Delta(key(p2, VS_HUMAN, 0, p1), mirrored, time));
+            }
+            if (pvc[0] + pvc[1] + pvc[2] > 0) {
+                deltas.add(new Delta(key(p1, TOTAL, 0, ""), pvc, time));
+                deltas.add(new Delta(key(p1, VS_COMPUTER, difficulty, ""), pvc, time));
+            }
+            drain();
+            if (!deltas.isEmpty()) apply(deltas);
+            // a crash before this line imports the file again on the next start
+            Files.move(legacy, legacy.resolveSibling(LEGACY_FILE + ".imported"), StandardCopyOption.REPLACE_EXISTING);
+        });
+    }
+
+    // unreadable counters read as 0, as they did in the old store
+    private static int count(Properties props, String key) {
+        try {
+            return Math.max(0, Integer.parseInt(props.getProperty(key, "0").trim()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    // The n players with the most wins (fewest losses on ties). Streams the file a chunk at a
+    // time through a bounded heap, so memory stays O(n) however many profiles there are.
+    public List<Profile> leaderboard(int n) throws IOException {
+        if (n <= 0) return List.of();
+        Comparator<Profile> order = Comparator.<Profile>comparingInt(p -> p.wins).thenComparingInt(p -> -p.losses);
+        PriorityQueue<Profile> best = new PriorityQueue<>(order);
+        synchronized (fileLock) {
+            FileChannel ch = channel();
+            ByteBuffer buf = ByteBuffer.allocate(CHUNK);
+            long count = count(ch);
+            for (long first = 0; first < count; first += CHUNK / RECORD) {
+                buf.clear().limit((int) Math.min(CHUNK, (count - first) * RECORD));
+                readFully(ch, buf, HEADER + first * RECORD);
+                for (int at = 0; at < buf.limit(); at += RECORD) {
+                    if (buf.get(at + NAME) != TOTAL) continue;
+                    int wins = buf.getInt(at + KEY), losses = buf.getInt(at + KEY + 4);
+                    Profile top = best.peek();
+                    if (best.size() == n && (wins < top.wins || wins == top.wins && losses >= top.losses)) continue;
+                    byte[] record = new byte[RECORD];
+                    buf.get(at, record);
+                    best.add(decode(ByteBuffer.wrap(record)));
+                    if (best.size() > n) best.poll();
+                }
+            }
+        }
+        List<Profile> result = new ArrayList<>(best);
+        result.sort(order.reversed());
+        return result;
+    }
+
+    public long size() throws IOException {
+        synchronized (fileLock) { return count(channel()); }
+    }
+
+    // blocks until every update handed over so far is on disk (or has failed)
+    public void flush() {
+        try {
+            writer.submit(() -> {}).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RejectedExecutionException ignored) {
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+        writer.shutdown();
+        synchronized (fileLock) {
+            try {
+                if (channel != null) channel.close();
+                if (journal != null) journal.close();
+            } catch (IOException ignored) {
+            }
+            channel = null;
+            journal = null;
+        }
+    }
+
+    private static final class Delta {
+        final byte[] key;
+        final int[] counts;
+        final long time;
+
+        Delta(byte[] key, int[] counts, long time) { this.key = key; this.counts = counts; this.time = time; }
+    }
+
+    private static int[] delta(int result) {
+        int[] d = new int[3];
+        d[result == WIN ? 0 : result == LOSS ? 1 : 2] = 1;
+        return d;
+    }
+
+    private interface IoTask { void run() throws IOException; }
+
+    private void submit(IoTask task) {
+        try {
+            writer.execute(() -> {
+                try {
+                    task.run();
+                } catch (IOException e) {
+                    errorHandler.accept(e);
+                }
+            });
+        } catch (RejectedExecutionException ignored) {
+            // closed: the app is on its way out
+        }
+    }
+
+    private void drain() throws IOException {
+        List<Delta> batch = new ArrayList<>();
+        for (Delta d; (d = queued.poll()) != null; ) batch.add(d);
+        if (!batch.isEmpty()) apply(batch);
+    }
+
+    private void resetRow(List<Delta> deltas, String name, byte[] key) throws IOException {
+        synchronized (fileLock) {
+            FileChannel ch = channel();
+            long i = find(ch, key);
+            if (i < 0) return;
+            ByteBuffer row = read(ch, i);
+            int[] back = {-row.getInt(KEY), -row.getInt(KEY + 4), -row.getInt(KEY + 8)};
+            deltas.add(new Delta(key, back, row.getLong(KEY + 12)));
+            deltas.add(new Delta(key(name, TOTAL, 0, ""), back, row.getLong(KEY + 12)));
+        }
+    }
+
+    // existing rows are updated in place; missing ones are merged in with one rewrite
+    private void apply(List<Delta> deltas) throws IOException {
+        GameEvents.ScoreSave event = new GameEvents.ScoreSave();
+        event.begin();
+        synchronized (fileLock) {
+            FileChannel ch = channel();
+            List<Delta> missing = new ArrayList<>();
+            List<ByteBuffer> rows = new ArrayList<>();
+            List<Long> at = new ArrayList<>();
+            for (Delta d : deltas) {
+                long i = find(ch, d.key);
+                if (i < 0) { missing.add(d); continue; }
+                // a key twice in the batch updates the row already read
+                int seen = at.indexOf(i);
+                ByteBuffer row = seen >= 0 ? rows.get(seen) : read(ch, i);
+                for (int c = 0; c < 3; c++) row.putInt(KEY + 4 * c, Math.max(0, row.getInt(KEY + 4 * c) + d.counts[c]));
+                row.putLong(KEY + 12, Math.max(row.getLong(KEY + 12), d.time));
+                if (seen < 0) { rows.add(row); at.add(i); }
+            }
+            if (!rows.isEmpty()) {
+                journal(rows);
+                for (int r = 0; r < rows.size(); r++) writeFully(ch, rows.get(r).clear(), HEADER + at.get(r) * RECORD);
+                ch.force(false);
+                // needn't be forced: a stale journal only holds rows the file already has
+                journal.truncate(0);
+            }
+            if (!missing.isEmpty()) insert(ch, missing);   // reopens the channel on the new file
+            event.updated = deltas.size() - missing.size();
+            event.inserted = missing.size();
+        }
+        event.commit();
+    }
+
+    private void insert(FileChannel ch, List<Delta> missing) throws IOException {
+        missing.sort((a, b) -> Arrays.compareUnsigned(a.key, b.key));
+        List<ByteBuffer> fresh = new ArrayList<>();
+        for (Delta d : missing) {
+            ByteBuffer row = ByteBuffer.allocate(RECORD);
+            if (!fresh.isEmpty() && Arrays.equals(fresh.get(fresh.size() - 1).array(), 0, KEY, d.key, 0, KEY)) {
+                row = fresh.get(fresh.size() - 1);   // two deltas for the same new key
+            } else {
+                row.put(d.key);
+                fresh.add(row);
+            }
+            for (int c = 0; c < 3; c++) row.putInt(KEY + 4 * c, Math.max(0, row.getInt(KEY + 4 * c) + d.counts[c]));
+            row.putLong(KEY + 12, Math.max(row.getLong(KEY + 12), d.time));
+        }
+
+        Path tmp = Files.createTempFile(dir, "profiles", ".tmp");
+        try {
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER).putInt(MAGIC).put((byte) VERSION);
+                writeFully(out, header.clear(), 0);
+                long count = count(ch), written = 0;
+                int next = 0;
+                ByteBuffer in = ByteBuffer.allocate(CHUNK), merged = ByteBuffer.allocate(CHUNK + RECORD);
+                byte[] key = new byte[KEY];
+                for (long first = 0; first < count; first += CHUNK / RECORD) {
+                    in.clear().limit((int) Math.min(CHUNK, (count - first) * RECORD));
+                    readFully(ch, in, HEADER + first * RECORD);
+                    for (int at = 0; at < in.limit(); at += RECORD) {
+                        in.get(at, key);
+                        while (next < fresh.size() && Arrays.compareUnsigned(fresh.get(next).array(), 0, KEY, key, 0, KEY) < 0) {
+                            merged.put(fresh.get(next++).array());
+                            if (merged.remaining() < RECORD) written += flushMerged(out, merged, written);
+                        }
+                        merged.put(in.array(), at, RECORD);
+                        if (merged.remaining() < RECORD) written += flushMerged(out, merged, written);
+                    }
+                }
+                while (next < fresh.size()) {
+                    merged.put(fresh.get(next++).array());
+                    if (merged.remaining() < RECORD) written += flushMerged(out, merged, written);
+                }
+                flushMerged(out, merged, written);
+                out.force(true);
+            }
+            ch.close();
+            channel = null;
+            try {
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    // the rows about to be written in place, made durable first
+    private void journal(List<ByteBuffer> rows) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(8 + rows.size() * RECORD + 4);
+        buf.putInt(JOURNAL_MAGIC).putInt(rows.size());
+        for (ByteBuffer row : rows) buf.put(row.array());
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), 0, buf.position());
+        buf.putInt((int) crc.getValue()).flip();
+        journal.truncate(0);
+        writeFully(journal, buf, 0);
+        journal.force(false);
+    }
+
+    // Redoes the journal of an update cut short, if it is complete. The rows are found by key,
+    // since a merge may have moved them since; writing one twice is harmless.
+    private void recover(FileChannel ch) throws IOException {
+        long length = journal.size();
+        if (length < 12 || length > Integer.MAX_VALUE) {
+            if (length > 0) journal.truncate(0);
+            return;
+        }
+        ByteBuffer buf = ByteBuffer.allocate((int) length);
+        readFully(journal, buf, 0);
+        int count = buf.getInt(4);
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), 0, (int) length - 4);
+        boolean complete = buf.getInt(0) == JOURNAL_MAGIC && count >= 0 && length == 8 + (long) count * RECORD + 4
+                && buf.getInt((int) length - 4) == (int) crc.getValue();
+        if (complete) {
+            byte[] key = new byte[KEY];
+            for (int r = 0; r < count; r++) {
+                int from = 8 + r * RECORD;
+                buf.get(from, key);
+                long i = find(ch, key);
+                if (i >= 0) writeFully(ch, ByteBuffer.wrap(buf.array(), from, RECORD).slice(), HEADER + i * RECORD);
+            }
+            ch.force(false);
+        }
+        journal.truncate(0);
+    }
+
+    private static long flushMerged(FileChannel out, ByteBuffer merged, long written) throws IOException {
+        merged.flip();
+        int n = merged.remaining();
+        writeFully(out, merged, HEADER + written);
+        merged.clear();
+        return n;
+    }
+
+    // index of the record with this key, or -(insertion point) - 1
+    private static long find(FileChannel ch, byte[] key) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(KEY);
+        long lo = 0, hi = count(ch) - 1;
+        while (lo <= hi) {
+            long mid = (lo + hi) >>> 1;
+            readFully(ch, probe.clear(), HEADER + mid * RECORD);
+            int cmp = Arrays.compareUnsigned(probe.array(), key);
+            if (cmp < 0) lo = mid + 1;
+            else if (cmp > 0) hi = mid - 1;
+            else return mid;
+        }
+        return -lo - 1;
+    }
+
+    private static ByteBuffer read(FileChannel ch, long index) throws IOException {
+        ByteBuffer row = ByteBuffer.allocate(RECORD);
+        readFully(ch, row, HEADER + index * RECORD);
+        return row.clear();
+    }
+
+    private static long count(FileChannel ch) throws IOException {
+        return Math.max(0, (ch.size() - HEADER) / RECORD);
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            Files.createDirectories(dir);
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (channel.size() == 0) {
+                writeFully(channel, ByteBuffer.allocate(HEADER).putInt(MAGIC).put((byte) VERSION).clear(), 0);
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(HEADER);
+                readFully(channel, header, 0);
+                if (header.getInt(0) != MAGIC || header.get(4) != VERSION) {
+                    channel.close();
+                    channel = null;
+                    throw new IOException("Not a profile store: " + file);
+                }
+            }
+            if (journal == null) {
+                journal = FileChannel.open(dir.resolve(JOURNAL_FILE), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                recover(channel);
+            }
+        }
+        return channel;
+    }
+
+    private static void readFully(FileChannel ch, ByteBuffer buf, long pos) throws IOException {
+        while (buf.hasRemaining()) {
+            if (ch.read(buf, pos + buf.position()) < 0) throw new IOException("Truncated profile store.");
+        }
+    }
+
+    private static void writeFully(FileChannel ch, ByteBuffer buf, long pos) throws IOException {
+        while (buf.hasRemaining()) ch.write(buf, pos + buf.position());
+    }
+
+    static byte[] key(String name, int kind, int difficulty, String opponent) {
+        byte[] key = new byte[KEY];
+        putName(key, 0, name);
+        key[NAME] = (byte) kind;
+        key[NAME + 1] = (byte) difficulty;
+        putName(key, NAME + 2, opponent);
+        return key;
+    }
+
+    // truncated to NAME bytes on a character boundary
+    private static void putName(byte[] key, int at, String name) {
+        String s = name == null ? "" : name.trim();
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        while (b.length > NAME) {
+            s = s.substring(0, s.offsetByCodePoints(0, s.codePointCount(0, s.length()) - 1));
+            b = s.getBytes(StandardCharsets.UTF_8);
+        }
+        System.arraycopy(b, 0, key, at, b.length);
+    }
+
+    private static String getName(ByteBuffer row, int at) {
+        int length = 0;
+        while (length < NAME && row.get(at + length) != 0) length++;
+        byte[] b = new byte[length];
+        row.get(at, b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    private static Profile decode(ByteBuffer row) {
+        return new Profile(getName(row, 0), row.get(NAME), row.get(NAME + 1), getName(row, NAME + 2),
+                row.getInt(KEY), row.getInt(KEY + 4), row.getInt(KEY + 8), row.getLong(KEY + 12));
+    }
+
+    // ProfileStore [top N] [dir]: prints the leaderboard
+    public static void main(String[] args) throws IOException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        try (ProfileStore store = args.length > 1 ? new ProfileStore(Paths.get(args[1])) : new ProfileStore()) {
+            System.out.println(store.size() + " profile rows in " + store.getFile());
+            int rank = 1;
+            for (Profile p : store.leaderboard(n)) {
+                System.out.printf("%3d. %-32s %6d wins %6d losses %6d draws%n", rank++, p.name, p.wins, p.losses, p.draws);
+            }
+        }
+    }
+}
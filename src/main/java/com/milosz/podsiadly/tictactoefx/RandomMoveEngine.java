@@ -0,0 +1,22 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import java.util.random.RandomGenerator;
+
+// Easy: any free cell, uniformly at random.
+public class RandomMoveEngine implements MoveEngine {
+    private final RandomGenerator rng;
+
+    public RandomMoveEngine(RandomGenerator rng) { this.rng = rng; }
+
+    @Override
+    public int[] chooseMove(Board board, int player) {
+        int n = board.getSize();
+        int free = n * n - board.getMoveCount();
+        if (free == 0) return null;
+        int pick = rng.nextInt(free);
+        for (int r = 0; r < n; r++) for (int c = 0; c < n; c++) {
+            if (board.getCell(r, c) == 0 && pick-- == 0) return new int[]{r, c};
+        }
+        return null;
+    }
+}
@@ -0,0 +1,128 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+// Cost of the computer's moves, per difficulty level, published as a platform MXBean under
+// com.milosz.podsiadly.tictactoefx:type=SearchTelemetry (jconsole, JFR, any JMX client).
+// The searches keep their own primitive counters; record() runs once per move, after the search,
+// so the search loops pay nothing for it and nothing is allocated.
+public class SearchTelemetry implements SearchTelemetryMXBean {
+    public static final String OBJECT_NAME = "com.milosz.podsiadly.tictactoefx:type=SearchTelemetry";
+    private static final int LEVELS = MoveEngines.maxLevel() + 1;
+    private static final SearchTelemetry INSTANCE = new SearchTelemetry();
+    private static boolean registered;
+
+    private final long[] moves = new long[LEVELS], nodes = new long[LEVELS];
+    private final long[] nanos = new long[LEVELS], maxNanos = new long[LEVELS];
+    private int lastLevel, lastDepth;
+    private long lastNodes, lastNanos;
+
+    private SearchTelemetry() {}
+
+    public static SearchTelemetry get() { return INSTANCE; }
+
+    // safe to call more than once; the app runs fine without JMX if registration fails
+    public static synchronized void register() {
+        if (registered) return;
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+            registered = true;
+        } catch (JMException | SecurityException e) {
+            System.err.println("Search telemetry not published over JMX: " + e);
+        }
+    }
+
+    public synchronized void record(int level, long nodeCount, int depth, long elapsedNanos) {
+        if (level < 0 || level >= LEVELS) return;
+        moves[level]++;
+        nodes[level] += nodeCount;
+        nanos[level] += elapsedNanos;
+        if (elapsedNanos > maxNanos[level]) maxNanos[level] = elapsedNanos;
+        lastLevel = level;
+        lastNodes = nodeCount;
+        lastDepth = depth;
+        lastNanos = elapsedNanos;
+    }
+
+    // one line about the last move, for the on-screen overlay
+    public synchronized String describeLast() {
+        if (lastLevel == 0) return "";
+        return String.format("%s: %,d nodes, depth %d, %.1f ms, %,.0f nodes/s  (%d moves, avg %.1f ms)",
+                levelName(lastLevel), lastNodes, lastDepth, lastNanos / 1e6,
+                getLastNodesPerSecond(), moves[lastLevel], nanos[lastLevel] / 1e6 / moves[lastLevel]);
+    }
+
+    private static String levelName(int level) {
+        MoveEngineProvider p = MoveEngines.provider(level);
+        return p != null ? p.displayName() : Translations.get(Msg.LEVEL) + " " + level;
+    }
+
+    @Override
+    public synchronized long getMovesSearched() { return sum(moves); }
+
+    @Override
+    public synchronized long getNodesSearched() { return sum(nodes); }
+
+    @Override
+    public synchronized double getAverageMillisPerMove() {
+        long n = sum(moves);
+        return n == 0 ? 0 : sum(nanos) / 1e6 / n;
+    }
+
+    @Override
+    public synchronized double getNodesPerSecond() {
+        long t = sum(nanos);
+        return t == 0 ? 0 : sum(nodes) * 1e9 / t;
+    }
+
+    @Override
+    public synchronized long[] getMovesByLevel() { return moves.clone(); }
+
+    @Override
+    public synchronized long[] getNodesByLevel() { return nodes.clone(); }
+
+    @Override
+    public synchronized double[] getAverageMillisByLevel() {
+        double[] avg = new double[LEVELS];
+        for (int i = 0; i < LEVELS; i++) avg[i] = moves[i] == 0 ? 0 : nanos[i] / 1e6 / moves[i];
+        return avg;
+    }
+
+    @Override
+    public synchronized double[] getMaxMillisByLevel() {
+        double[] max = new double[LEVELS];
+        for (int i = 0; i < LEVELS; i++) max[i] = maxNanos[i] / 1e6;
+        return max;
+    }
+
+    @Override
+    public synchronized int getLastLevel() { return lastLevel; }
+
+    @Override
+    public synchronized long getLastNodes() { return lastNodes; }
+
+    @Override
+    public synchronized int getLastDepth() { return lastDepth; }
+
+    @Override
+    public synchronized double getLastMillis() { return lastNanos / 1e6; }
+
+    @Override
+    public synchronized double getLastNodesPerSecond() { return lastNanos == 0 ? 0 : lastNodes * 1e9 / lastNanos; }
+
+    @Override
+    public synchronized void reset() {
+        for (long[] a : new long[][]{moves, nodes, nanos, maxNanos}) Arrays.fill(a, 0);
+        lastLevel = lastDepth = 0;
+        lastNodes = lastNanos = 0;
+    }
+
+    private static long sum(long[] a) {
+        long s = 0;
+        for (long v : a) s += v;
+        return s;
+    }
+}
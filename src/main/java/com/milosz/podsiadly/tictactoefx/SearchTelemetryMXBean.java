@@ -0,0 +1,32 @@
+package com.milosz.podsiadly.tictactoefx;
+
+// Management view of SearchTelemetry. Per-level arrays are indexed by difficulty level (0 unused).
+public interface SearchTelemetryMXBean {
+    long getMovesSearched();
+
+    long getNodesSearched();
+
+    double getAverageMillisPerMove();
+
+    double getNodesPerSecond();
+
+    long[] getMovesByLevel();
+
+    long[] getNodesByLevel();
+
+    double[] getAverageMillisByLevel();
+
+    double[] getMaxMillisByLevel();
+
+    int getLastLevel();
+
+    long getLastNodes();
+
+    int getLastDepth();
+
+    double getLastMillis();
+
+    double getLastNodesPerSecond();
+
+    void reset();
+}
@@ -0,0 +1,249 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Headless self-play training of the PatternPolicy behind the Learned level.
+//
+//   SelfPlayTrainer [--win 5] [--size 9] [--games 200000] [--threads N] [--seed 1]
+//                   [--batch 512] [--alpha 0.5] [--epsilon 0.1] [--eval 1000] [--out file]
+//
+// Both sides play the current policy, epsilon-greedy, and the value of the position after every
+// move is pulled towards what followed (TD learning on the pattern weights): +1 for a move that
+// wins, 0 for one that fills the board, otherwise minus the value of the opponent's best reply.
+//
+// Training runs in rounds of --batch games dealt to SHARDS fixed shards. Each shard starts the
+// round from a copy of the weights and trains it game by game; between rounds the weights move by
+// the mean of the shards' changes, summed in shard order. Shards draw their RNGs from the seed in
+// order, so the output file is the same for a given seed whatever --threads is. --eval then plays
+// Medium from both sides.
+public class SelfPlayTrainer {
+    private static final int SHARDS = 64;
+
+    private final int size, winLength, cells;
+    private final float[] weights;
+    private final double alpha, epsilon;
+
+    SelfPlayTrainer(int size, int winLength, double alpha, double epsilon) {
+        this.size = size;
+        this.winLength = winLength;
+        this.cells = size * size;
+        this.weights = PatternPolicy.empty(winLength).weights();
+        this.alpha = alpha;
+        this.epsilon = epsilon;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        int winLength = 5, size = 9, threads = Runtime.getRuntime().availableProcessors(), batch = 512, eval = 1000;
+        long games = 200_000, seed = 1;
+        double alpha = 0.5, epsilon = 0.1;
+        Path out = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--win" -> winLength = Integer.parseInt(args[i + 1]);
+                case "--size" -> size = Integer.parseInt(args[i + 1]);
+                case "--games" -> games = Long.parseLong(args[i + 1]);
+                case "--threads" -> threads = Integer.parseInt(args[i + 1]);
+                case "--seed" -> seed = Long.parseLong(args[i + 1]);
+                case "--batch" -> batch = Integer.parseInt(args[i + 1]);
+                case "--alpha" -> alpha = Double.parseDouble(args[i + 1]);
+                case "--epsilon" -> epsilon = Double.parseDouble(args[i + 1]);
+                case "--eval" -> eval = Integer.parseInt(args[i + 1]);
+                case "--out" -> out = Paths.get(args[i + 1]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (winLength < 3 || winLength > PatternPolicy.MAX_WIN_LENGTH || size < winLength || size > 64) {
+            throw new IllegalArgumentException("3 <= win <= " + PatternPolicy.MAX_WIN_LENGTH + " and win <= size <= 64.");
+        }
+        if (out == null) out = PatternPolicy.directory().resolve(PatternPolicy.fileName(winLength));
+
+        SelfPlayTrainer trainer = new SelfPlayTrainer(size, winLength, alpha, epsilon);
+        System.out.printf("%,d games on %dx%d, %d in a row, %d weights, %d threads, seed %d%n",
+                games, size, size, winLength, trainer.weights.length, threads, seed);
+        long started = System.nanoTime();
+        long[] totals = trainer.train(games, batch, threads, seed);
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.out.printf("%,d games, %,d moves in %.1f s: %,.0f games/s, %,.0f moves/s (X %.1f%%, O %.1f%%, draws %.1f%%)%n",
+                totals[0], totals[1], seconds, totals[0] / seconds, totals[1] / seconds,
+                100.0 * totals[2] / totals[0], 100.0 * totals[3] / totals[0], 100.0 * (totals[0] - totals[2] - totals[3]) / totals[0]);
+
+        PatternPolicy trained = new PatternPolicy(winLength, trainer.weights, seed, totals[0]);
+        Path dir = out.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        trained.write(out);
+        System.out.printf("wrote %s (%d bytes)%n", out, Files.size(out));
+        if (eval > 0) trainer.evaluate(trained, eval, seed);
+    }
+
+    // plays games self-play games; returns games, moves, X wins, O wins
+    long[] train(long games, int batch, int threads, long seed) throws InterruptedException, ExecutionException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        SplittableRandom master = new SplittableRandom(seed);
+        Shard[] shards = new Shard[SHARDS];
+        for (int i = 0; i < SHARDS; i++) shards[i] = new Shard();
+        long played = 0, lastReport = System.nanoTime(), reportedGames = 0;
+        try {
+            while (played < games) {
+                int round = (int) Math.min(batch, games - played);
+                List<Future<?>> running = new ArrayList<>(SHARDS);
+                for (int i = 0; i < SHARDS; i++) {
+                    Shard shard = shards[i];
+                    shard.rng = master.split();
+                    int share = round / SHARDS + (i < round % SHARDS ? 1 : 0);
+                    running.add(pool.submit(() -> shard.play(share)));
+                }
+                for (Future<?> f : running) f.get();
+                fold(shards);
+                played += round;
+                long now = System.nanoTime();
+                if (now - lastReport > 5_000_000_000L) {
+                    System.out.printf("  %,12d games  %,10.0f games/s%n", played, (played - reportedGames) / ((now - lastReport) / 1e9));
+                    lastReport = now;
+                    reportedGames = played;
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        long[] totals = new long[4];
+        for (Shard s : shards) {
+            totals[0] += s.games;
+            totals[1] += s.moves;
+            totals[2] += s.xWins;
+            totals[3] += s.oWins;
+        }
+        return totals;
+    }
+
+    // the round's result: the mean of what the shards that played moved each weight by
+    private void fold(Shard[] shards) {
+        int active = 0;
+        for (Shard s : shards) if (s.played > 0) active++;
+        for (int w = 0; w < weights.length; w++) {
+            float sum = 0;
+            for (Shard s : shards) if (s.played > 0) sum += s.local[w] - weights[w];
+            weights[w] += sum / active;
+        }
+    }
+
+    // one shard's games and update sums; its RNG is replaced every round
+    private final class Shard {
+        final float[] local = new float[weights.length];
+        final int[] uses = new int[weights.length];   // scratch for update(), all zero between calls
+        final PatternPolicy.Position pos = new PatternPolicy.Position(size, winLength);
+        final int[] free = new int[cells];
+        int[] features, previous;
+        final float[] best = new float[1];
+        SplittableRandom rng;
+        int played;
+        long games, moves, xWins, oWins;
+
+        Shard() {
+            features = new int[pos.segments()];
+            previous = new int[pos.segments()];
+        }
+
+        void play(int n) {
+            played = n;
+            if (n == 0) return;
+            System.arraycopy(weights, 0, local, 0, weights.length);
+            for (int g = 0; g < n; g++) playGame();
+        }
+
+        private void playGame() {
+            pos.clear();
+            for (int i = 0; i < cells; i++) free[i] = i;
+            int left = cells, player = 1, previousCount = 0;
+            float previousScore = 0;
+            while (true) {
+                int greedy = PatternPolicy.bestCell(pos, player, local, rng, best);
+                // the opponent's last position is worth minus the best this player can reach from it
+                if (previousCount > 0) update(previous, previousCount, previousScore, -best[0]);
+                int cell = rng.nextDouble() < epsilon ? free[rng.nextInt(left)] : greedy;
+                pos.play(cell, player);
+                int n = pos.features(player, features);
+                float score = pos.sum(player, local);
+                moves++;
+                for (int i = 0; i < left; i++) {
+                    if (free[i] == cell) {
+                        free[i] = free[--left];
+                        break;
+                    }
+                }
+                if (pos.completes(cell, player)) {
+                    update(features, n, score, 1);
+                    if (player == 1) xWins++; else oWins++;
+                    break;
+                }
+                if (left == 0) {
+                    update(features, n, score, 0);
+                    break;
+                }
+                int[] t = previous;
+                previous = features;
+                features = t;
+                previousCount = n;
+                previousScore = score;
+                player = 3 - player;
+            }
+            games++;
+        }
+
+        // Normalised least squares on the unclamped sum: the step is divided by the sum over the
+        // weights of (windows using it)^2, so alpha is the share of the error one update removes
+        // however many windows share a weight.
+        private void update(int[] f, int n, float score, float target) {
+            long norm = 0;
+            for (int i = 0; i < n; i++) norm += 2L * uses[f[i]]++ + 1;   // (c + 1)^2 - c^2
+            float g = (float) (alpha * (target - score) / norm);
+            for (int i = 0; i < n; i++) {
+                local[f[i]] += g;
+                uses[f[i]] = 0;
+            }
+        }
+    }
+
+    // the trained policy against Medium, as X and as O
+    private void evaluate(PatternPolicy trained, int games, long seed) {
+        SplittableRandom rng = new SplittableRandom(seed ^ 0x5DEECE66DL);
+        PatternPolicy.Position pos = new PatternPolicy.Position(size, winLength);
+        WinBlockMoveEngine medium = new WinBlockMoveEngine(rng.split());
+        for (int learnedSide = 1; learnedSide <= 2; learnedSide++) {
+            int won = 0, lost = 0;
+            for (int g = 0; g < games; g++) {
+                Board board = new Board(size, winLength);
+                pos.clear();
+                int player = 1;
+                while (true) {
+                    int cell;
+                    if (player == learnedSide) {
+                        cell = trained.bestCell(pos, player, rng, null);
+                    } else {
+                        int[] mv = medium.chooseMove(board, player);
+                        cell = mv[0] * size + mv[1];
+                    }
+                    board.makeMove(cell / size, cell % size, player);
+                    pos.play(cell, player);
+                    if (pos.completes(cell, player)) {
+                        if (player == learnedSide) won++; else lost++;
+                        break;
+                    }
+                    if (board.isFull()) break;
+                    player = 3 - player;
+                }
+            }
+            System.out.printf("as %s vs Medium: won %.1f%%, lost %.1f%%, drawn %.1f%%%n", learnedSide == 1 ? "X" : "O",
+                    100.0 * won / games, 100.0 * lost / games, 100.0 * (games - won - lost) / games);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+// Timings of the phases of a cold start, measured from the launch of the JVM process. Phases may
+// nest (the FXML load includes the controller's initialize); the report lists them in the order
+// they finished. Only the first start is recorded: once the report is taken, phase() is a no-op.
+public final class StartupTimer {
+    // nanoTime() of the moment the process was launched, as near as the OS tells us
+    public static final long LAUNCH;
+
+    private static final List<String> names = new ArrayList<>();
+    private static final List<long[]> spans = new ArrayList<>();
+    private static volatile boolean done;
+
+    static {
+        long now = System.nanoTime();
+        long sinceLaunchMillis = ProcessHandle.current().info().startInstant()
+                .map(i -> System.currentTimeMillis() - i.toEpochMilli()).orElse(0L);
+        LAUNCH = now - Math.max(0, sinceLaunchMillis) * 1_000_000;
+    }
+
+    private StartupTimer() {}
+
+    public static long now() { return System.nanoTime(); }
+
+    public static synchronized void phase(String name, long startNanos) {
+        if (done) return;
+        names.add(name);
+        spans.add(new long[]{startNanos - LAUNCH, System.nanoTime() - LAUNCH});
+    }
+
+    // ends the recording and returns the table
+    public static synchronized String report() {
+        done = true;
+        StringBuilder sb = new StringBuilder(String.format("startup (ms since JVM launch at %s)%n", Instant.now().minusNanos(System.nanoTime() - LAUNCH)));
+        for (int i = 0; i < names.size(); i++) {
+            long[] s = spans.get(i);
+            sb.append(String.format("  %-28s %8.1f -> %8.1f  %8.1f ms%n", names.get(i), s[0] / 1e6, s[1] / 1e6, (s[1] - s[0]) / 1e6));
+        }
+        return sb.toString();
+    }
+
+    public static synchronized void finish() { done = true; }
+}
@@ -0,0 +1,34 @@
+package com.milosz.podsiadly.tictactoefx;
+
+// The status and score lines for the current players and language. Everything fixed is put
+// together once per setup, so a move just hands back one of two prebuilt status strings, and
+// the score line is only rebuilt (in a reused builder) when a count actually changes.
+final class StatusText {
+    private final String[] status = new String[3];
+    private final StringBuilder sb = new StringBuilder(96);
+    private String scoreHead, scoreMiddle, scoreTail;
+    private String score;
+    private int wins, losses, draws;
+
+    void configure(Player p1, Player p2, boolean vsComputer) {
+        String prefix = Translations.get(Msg.CURRENT_PLAYER) + ": ";
+        status[1] = prefix + p1.getName() + " (" + p1.getSymbol() + ")";
+        status[2] = prefix + p2.getName() + " (" + p2.getSymbol() + ")";
+        scoreHead = (vsComputer ? "[PvC] " : "[PvP] ") + p1.getName() + " = ";
+        scoreMiddle = "  |  " + p2.getName() + " = ";
+        scoreTail = "  |  " + Translations.get(Msg.DRAWS) + ": ";
+        score = null;
+    }
+
+    String status(Player player) { return status[player.getNumber()]; }
+
+    String score(int wins, int losses, int draws) {
+        if (score == null || wins != this.wins || losses != this.losses || draws != this.draws) {
+            this.wins = wins; this.losses = losses; this.draws = draws;
+            sb.setLength(0);
+            score = sb.append(scoreHead).append(wins).append(scoreMiddle).append(losses)
+                    .append(scoreTail).append(draws).toString();
+        }
+        return score;
+    }
+}
@@ -0,0 +1,84 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Incremental Zobrist hashing of a square board under all 8 symmetries of the square (D4).
+// One hash per symmetry is kept up to date on every move; the smallest of them identifies the
+// position's canonical form, so rotated and mirrored positions share one transposition entry.
+public class SymmetryHasher {
+    public static final int SYMMETRIES = 8;
+
+    private final int size;
+    private final int[][] perm;      // perm[s][cell] = where symmetry s sends cell
+    private final int[][] inverse;   // inverse[s][perm[s][cell]] = cell
+    private final long[][] keys;     // keys[player][cell]
+    private final long[] sideKeys;
+    private final long[] hashes = new long[SYMMETRIES];
+    private int canonicalSymmetry;
+
+    public SymmetryHasher(int size) {
+        this.size = size;
+        int cells = size * size;
+        perm = new int[SYMMETRIES][cells];
+        inverse = new int[SYMMETRIES][cells];
+        for (int s = 0; s < SYMMETRIES; s++) {
+            for (int cell = 0; cell < cells; cell++) {
+                int image = transform(s, cell / size, cell % size);
+                perm[s][cell] = image;
+                inverse[s][image] = cell;
+            }
+        }
+        SplittableRandom rnd = new SplittableRandom(0x7AC7AC70EL + size);
+        keys = new long[3][cells];
+        for (int p = 1; p <= 2; p++) for (int cell = 0; cell < cells; cell++) keys[p][cell] = rnd.nextLong();
+        sideKeys = new long[]{0, rnd.nextLong(), rnd.nextLong()};
+    }
+
+    public int getSize() { return size; }
+
+    public void reset(Board board) {
+        Arrays.fill(hashes, 0);
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                int p = board.getCell(r, c);
+                if (p != 0) toggle(r * size + c, p);
+            }
+        }
+    }
+
+    // XORs a stone in or out; the same call undoes itself
+    public void toggle(int cell, int player) {
+        long[] k = keys[player];
+        for (int s = 0; s < SYMMETRIES; s++) hashes[s] ^= k[perm[s][cell]];
+    }
+
+    // canonical hash combined with the side to move; also records which symmetry produced it
+    public long key(int sideToMove) {
+        int best = 0;
+        for (int s = 1; s < SYMMETRIES; s++) if (Long.compareUnsigned(hashes[s], hashes[best]) < 0) best = s;
+        canonicalSymmetry = best;
+        return hashes[best] ^ sideKeys[sideToMove];
+    }
+
+    // map a cell between the current position and the canonical frame of the last key() call
+    public int toCanonical(int cell) { return perm[canonicalSymmetry][cell]; }
+
+    public int fromCanonical(int cell) { return inverse[canonicalSymmetry][cell]; }
+
+    private int transform(int s, int row, int col) {
+        int n = size - 1;
+        int r, c;
+        switch (s) {
+            case 0 -> { r = row;     c = col; }
+            case 1 -> { r = col;     c = n - row; }       // rotate 90
+            case 2 -> { r = n - row; c = n - col; }       // rotate 180
+            case 3 -> { r = n - col; c = row; }           // rotate 270
+            case 4 -> { r = row;     c = n - col; }       // mirror vertical axis
+            case 5 -> { r = n - row; c = col; }           // mirror horizontal axis
+            case 6 -> { r = col;     c = row; }           // main diagonal
+            default -> { r = n - col; c = n - row; }      // anti-diagonal
+        }
+        return r * size + c;
+    }
+}
@@ -1,25 +1,67 @@
 package com.milosz.podsiadly.tictactoefx;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
+import java.util.List;
+
+// Options: --startup-report prints how long each startup phase took (also -Dtictactoe.startupReport=true);
+// --cds-training quits after the first frame, for the build's class-data-sharing training run;
+// --jfr (or -Dtictactoe.jfr=true) keeps a continuous flight recording in a bounded ring buffer, dumped
+// with F4 (see GameEvents).
 public class TicTacToeApplication extends Application {
+    private TicTacToeController controller;
+
+    public TicTacToeApplication() {}
+
     @Override
     public void start(Stage stage) throws Exception {
+        long started = StartupTimer.now();
+        StartupTimer.phase("JVM to start()", StartupTimer.LAUNCH);
+        List<String> args = getParameters().getRaw();
+        boolean report = args.contains("--startup-report") || Boolean.getBoolean("tictactoe.startupReport");
+        boolean training = args.contains("--cds-training");
+        if (args.contains("--jfr") || Boolean.getBoolean("tictactoe.jfr")) GameEvents.startRecording();
+
+        long t = StartupTimer.now();
         FXMLLoader loader = new FXMLLoader(
                 TicTacToeApplication.class.getResource("tictactoe-view.fxml")
         );
         Scene scene = new Scene(loader.load(), 420, 520);
+        controller = loader.getController();
+        StartupTimer.phase("FXML load", t);
+
+        t = StartupTimer.now();
         scene.getStylesheets().add(
                 TicTacToeApplication.class.getResource("app.css").toExternalForm()
         );
+        StartupTimer.phase("stylesheet", t);
         stage.setTitle("TicTacToe – JavaFX");
         stage.setScene(scene);
         stage.setResizable(false);
+
+        // the first layout pulse of the scene is the first frame; only then ask for the setup
+        Runnable[] firstFrame = new Runnable[1];
+        firstFrame[0] = () -> {
+            scene.removePostLayoutPulseListener(firstFrame[0]);
+            StartupTimer.phase("start() to first frame", started);
+            if (report) System.err.print(StartupTimer.report());
+            else StartupTimer.finish();
+            if (training) Platform.exit();
+            else Platform.runLater(controller::showStartupSetup);
+        };
+        scene.addPostLayoutPulseListener(firstFrame[0]);
         stage.show();
     }
 
+    @Override
+    public void stop() {
+        if (controller != null) controller.shutdown();
+        GameEvents.stopRecording();
+    }
+
     public static void main(String[] args) { launch(args); }
 }
@@ -3,94 +3,110 @@ package com.milosz.podsiadly.tictactoefx;
 import javafx.animation.PauseTransition;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
-import javafx.geometry.HPos;
 import javafx.geometry.Insets;
-import javafx.geometry.Pos;
 import javafx.scene.Node;
+import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.layout.ColumnConstraints;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
 import javafx.scene.layout.GridPane;
-import javafx.scene.text.Font;
+import javafx.scene.layout.StackPane;
 import javafx.util.Duration;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Optional;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.prefs.Preferences;
 
 public class TicTacToeController {
 
-    @FXML private GridPane boardGrid;
+    private static final long COMPUTER_DELAY_MS = 350;
+    private static final int MAX_BOARD_SIZE = 64;
+
+    @FXML private StackPane boardHolder;
+    @FXML private Label statsLabel;
     @FXML private Label statusLabel;
     @FXML private Label scoreLabel;
     @FXML private Button newRoundBtn, resetScoresBtn, setupBtn;
 
+    private GameEngine game = new GameEngine();
+    private BoardView view;
     private Board board;
     private Player player1, player2, currentPlayer;
     private boolean playerVsComputer;
     private int computerDifficultyLevel;
     private boolean gameOver = false;
 
-    private final Button[][] cells = new Button[3][3];
     private final Random rng = new Random();
-    private final ScoreStore store = new ScoreStore();
+    private final ProfileStore profiles = new ProfileStore();
+    private final StatusText text = new StatusText();
+    private final GameLog gameLog = new GameLog();
+    // one engine per level for the whole session, so search tables survive across rounds; each is
+    // created when its level is first played
+    private final MoveEngine[] engines = new MoveEngine[MoveEngines.maxLevel() + 1];
+    private final ExecutorService aiExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private Future<?> aiTask;
+    // searches the computer's answers while the human thinks; -Dtictactoe.ponder=false turns it off
+    private final Ponderer ponderer = new Ponderer(searchThreads());
+    private final boolean pondering = Boolean.parseBoolean(System.getProperty("tictactoe.ponder", "true"));
+    // compiles the chosen level's search before its first move; -Dtictactoe.warmup=false turns it off
+    private final EngineWarmup warmup = new EngineWarmup(searchThreads());
+    private final boolean warmingUp = Boolean.parseBoolean(System.getProperty("tictactoe.warmup", "true"));
+    private int aiGeneration = 0;
+    private boolean thinking = false;
     private final Preferences prefs = Preferences.userNodeForPackage(getClass());
 
-    private int pvp_p1Wins = 0, pvp_p2Wins = 0, pvp_draws = 0;
-    private int pvc_pWins  = 0, pvc_cWins  = 0, pvc_draws = 0;
+    // the current matchup from player 1's side, mirrored from the profile store
+    private int matchWins = 0, matchLosses = 0, matchDraws = 0;
+    // bumped by every score load and reset, so only the latest load's answer is shown
+    private int scoreLoads = 0;
 
+    // created by the FXML loader
+    public TicTacToeController() {}
 
     @FXML
     private void initialize() {
-        buildBoardUI();
-
-        ScoreStore.Scores s = store.load();
-        pvp_p1Wins = s.pvp_p1Wins;  pvp_p2Wins = s.pvp_p2Wins;  pvp_draws = s.pvp_draws;
-        pvc_pWins  = s.pvc_pWins;   pvc_cWins  = s.pvc_cWins;   pvc_draws = s.pvc_draws;
+        long started = StartupTimer.now();
+        SearchTelemetry.register();
+        // F3 (or -Dtictactoe.statsOverlay=true) shows what the computer's last move cost;
+        // F4 dumps the flight recording started by --jfr
+        statsLabel.setVisible(Boolean.getBoolean("tictactoe.statsOverlay"));
+        boardHolder.sceneProperty().addListener((o, old, scene) -> {
+            if (scene == null) return;
+            scene.getAccelerators().put(new KeyCodeCombination(KeyCode.F3),
+                    () -> { statsLabel.setVisible(!statsLabel.isVisible()); updateStats(); });
+            scene.getAccelerators().put(new KeyCodeCombination(KeyCode.F4), this::dumpRecording);
+        });
 
-        configureGameWithDialog();
+        profiles.setErrorHandler(e -> Platform.runLater(() ->
+                statusLabel.setText(Translations.get(Msg.SAVE_FAILED) + ": " + e.getMessage())));
+        gameLog.setErrorHandler(e -> Platform.runLater(() ->
+                statusLabel.setText(Translations.get(Msg.SAVE_FAILED) + ": " + e.getMessage())));
+
+        // start on the saved preferences; the setup dialog comes up once the window is on screen
+        SetupResult saved = defaultSetupFromPrefs();
+        // queued ahead of the first score load, so that load already sees the imported scores
+        profiles.importLegacyScores(saved.p1, saved.p2, saved.difficulty);
+        applySetup(saved);
+        newGame();
         updateStatus();
         updateScore();
+        StartupTimer.phase("controller initialize", started);
     }
 
-    private void buildBoardUI() {
-        boardGrid.setHgap(8);
-        boardGrid.setVgap(8);
-        boardGrid.setAlignment(Pos.CENTER);
-
-        ColumnConstraints wide = new ColumnConstraints();
-        wide.setHalignment(HPos.CENTER);
-        boardGrid.getColumnConstraints().setAll(wide, wide, wide);
-
-        for (int r = 0; r < 3; r++) {
-            for (int c = 0; c < 3; c++) {
-                Button b = new Button(" ");
-                b.getStyleClass().add("cell");
-                b.setMinSize(110, 110);
-                b.setFont(Font.font(36));
-                final int row = r, col = c;
-                b.setOnAction(e -> onCellClick(row, col));
-                cells[r][c] = b;
-                boardGrid.add(b, c, r);
-            }
-        }
-    }
-
-    private void clearBoardUI() {
-        for (int r = 0; r < 3; r++) {
-            for (int c = 0; c < 3; c++) {
-                cells[r][c].setText(" ");
-                cells[r][c].setDisable(false);
-            }
-        }
+    // called by the application after the first frame
+    void showStartupSetup() {
+        onSetup();
     }
 
     private void disableBoard(boolean disabled) {
-        for (int r = 0; r < 3; r++) {
-            for (int c = 0; c < 3; c++) {
-                boolean alreadyMarked = !cells[r][c].getText().isBlank();
-                cells[r][c].setDisable(disabled || alreadyMarked);
-            }
-        }
+        view.setEnabled(!disabled);
     }
 
     @FXML
@@ -100,9 +116,10 @@ public class TicTacToeController {
 
     @FXML
     private void onResetScores() {
-        pvp_p1Wins = pvp_p2Wins = pvp_draws = 0;
-        pvc_pWins  = pvc_cWins  = pvc_draws  = 0;
-        persistScores();
+        matchWins = matchLosses = matchDraws = 0;
+        scoreLoads++;
+        profiles.resetMatch(player1.getName(), player2.getName(), playerVsComputer, computerDifficultyLevel);
+        gameLog.appendReset(player1.getName(), player2.getName(), playerVsComputer, computerDifficultyLevel);
         updateScore();
     }
 
@@ -114,47 +131,78 @@ public class TicTacToeController {
     }
 
     private void onCellClick(int row, int col) {
-        if (gameOver || !board.isCellAvailable(row, col)) return;
+        GameEvents.CellClick click = new GameEvents.CellClick();
+        click.begin();
+        click.row = row;
+        click.col = col;
+        click.accepted = !gameOver && !thinking && board.isCellAvailable(row, col);
+        if (click.accepted) {
+            traceClickToRender(row, col);
+            playHumanMove(row, col);
+        }
+        click.commit();
+    }
 
+    private void playHumanMove(int row, int col) {
         makeMoveAndAdvance(row, col);
-        if (gameOver) return;
-
-        if (playerVsComputer && currentPlayer == player2) {
-            PauseTransition pause = new PauseTransition(Duration.millis(350));
-            pause.setOnFinished(e -> doComputerTurn());
-            pause.play();
+        if (gameOver) {
+            ponderer.stop();
+            return;
         }
+
+        if (playerVsComputer && currentPlayer == player2) startComputerTurn();
+    }
+
+    // The canvas view repaints from a runLater queued by the move, so the stone is on the board
+    // once a pulse runs after everything queued so far: a runLater queued behind it arms the end.
+    private void traceClickToRender(int row, int col) {
+        GameEvents.ClickToRender event = new GameEvents.ClickToRender();
+        Scene scene = boardHolder.getScene();
+        if (scene == null || !event.isEnabled()) return;
+        event.begin();
+        event.row = row;
+        event.col = col;
+        boolean[] armed = new boolean[1];
+        Runnable[] onPulse = new Runnable[1];
+        onPulse[0] = () -> {
+            event.pulses++;
+            if (!armed[0]) return;
+            scene.removePostLayoutPulseListener(onPulse[0]);
+            event.commit();
+        };
+        scene.addPostLayoutPulseListener(onPulse[0]);
+        Platform.runLater(() -> {
+            armed[0] = true;
+            Platform.requestNextPulse();
+        });
     }
 
     private void makeMoveAndAdvance(int row, int col) {
-        board.makeMove(row, col, currentPlayer.getNumber());
-        cells[row][col].setText(String.valueOf(currentPlayer.getSymbol()));
-        cells[row][col].setDisable(true);
-
-        if (board.checkWin(currentPlayer.getNumber())) {
-            if (playerVsComputer) {
-                if (currentPlayer == player1) pvc_pWins++; else pvc_cWins++;
-            } else {
-                if (currentPlayer == player1) pvp_p1Wins++; else pvp_p2Wins++;
-            }
-            persistScores();
+        GameEngine.Outcome outcome = game.play(row, col);
+        view.cellChanged(row, col);
+
+        if (outcome == GameEngine.Outcome.WIN) {
+            if (currentPlayer == player1) matchWins++; else matchLosses++;
+            recordGame(currentPlayer == player1 ? ProfileStore.WIN : ProfileStore.LOSS);
+            logGame(game.getWinner());
             updateScore();
 
             gameOver = true;
             disableBoard(true);
             endGameAlert(currentPlayer.getName() + " (" + currentPlayer.getSymbol() + ") " +
-                    Translations.translate("wins!"));
+                    Translations.get(Msg.WINS));
             return;
         }
 
-        if (board.isFull()) {
-            if (playerVsComputer) pvc_draws++; else pvp_draws++;
-            persistScores();
+        if (outcome == GameEngine.Outcome.DRAW) {
+            matchDraws++;
+            recordGame(ProfileStore.DRAW);
+            logGame(GameLog.DRAW);
             updateScore();
 
             gameOver = true;
             disableBoard(true);
-            endGameAlert(Translations.translate("It's a draw!"));
+            endGameAlert(Translations.get(Msg.DRAW));
             return;
         }
 
@@ -163,68 +211,191 @@ public class TicTacToeController {
     }
 
     private void switchPlayer() {
-        currentPlayer = (currentPlayer == player1) ? player2 : player1;
+        currentPlayer = (game.getCurrentPlayer() == player1.getNumber()) ? player1 : player2;
     }
 
-    private void doComputerTurn() {
-        if (gameOver) return;
-
-        int[] mv = (computerDifficultyLevel == 1) ? getComputerMove()
-                : (computerDifficultyLevel == 2) ? getComputerMoveMedium()
-                : getComputerMoveHard();
+    // The engine runs on a snapshot off the FX thread; the answer is applied no sooner than
+    // COMPUTER_DELAY_MS after the human's move, and only if no new round/setup happened meanwhile.
+    private void startComputerTurn() {
+        warmup.stop();
+        thinking = true;
+        disableBoard(true);
+        statusLabel.setText(Translations.get(Msg.COMPUTER_THINKING));
+
+        final int generation = ++aiGeneration;
+        final Board snapshot = board.copy();
+        final long started = System.nanoTime();
+        aiTask = aiExecutor.submit(() -> {
+            int[] mv = computeComputerMove(snapshot);
+            Platform.runLater(() -> {
+                long waitMs = COMPUTER_DELAY_MS - (System.nanoTime() - started) / 1_000_000;
+                if (waitMs <= 0) { finishComputerTurn(generation, mv); return; }
+                PauseTransition pause = new PauseTransition(Duration.millis(waitMs));
+                pause.setOnFinished(e -> finishComputerTurn(generation, mv));
+                pause.play();
+            });
+        });
+    }
 
-        if (mv == null || !board.isCellAvailable(mv[0], mv[1])) mv = getFallbackMove();
+    private void finishComputerTurn(int generation, int[] mv) {
+        if (generation != aiGeneration || gameOver) return;
+        thinking = false;
+        aiTask = null;
+        if (mv == null || !board.isCellAvailable(mv[0], mv[1])) mv = getFallbackMove(board);
+        updateStats();
         makeMoveAndAdvance(mv[0], mv[1]);
+        if (!gameOver) {
+            disableBoard(false);
+            startPondering();
+        }
+    }
+
+    // Only the searching levels ponder; the others answer at once anyway.
+    private void startPondering() {
+        MoveEngineProvider level = MoveEngines.provider(computerDifficultyLevel);
+        if (!pondering || !playerVsComputer || level == null || !level.ponders() || gameOver
+                || game.getCurrentPlayer() != player1.getNumber()) return;
+        ponderer.start(board, player1.getNumber(), computerDifficultyLevel);
+    }
+
+    private void cancelComputerTurn() {
+        aiGeneration++;
+        thinking = false;
+        ponderer.stop();
+        if (aiTask != null) {
+            aiTask.cancel(true);
+            aiTask = null;
+        }
+    }
+
+    private int[] computeComputerMove(Board b) {
+        GameEvents.ComputerMove event = new GameEvents.ComputerMove();
+        event.begin();
+        try {
+            int level = computerDifficultyLevel;
+            event.level = level;
+            event.size = b.getSize();
+            // a pondered answer to the human's move costs nothing now; a miss drops the pondering
+            Ponderer.Answer pondered = ponderer.take(b);
+            if (pondered != null) {
+                SearchTelemetry.get().record(level, pondered.nodes, pondered.depth, pondered.nanos);
+                event.pondered = true;
+                event.nodes = pondered.nodes;
+                event.depth = pondered.depth;
+                event.searchNanos = pondered.nanos;
+                event.commit();
+                return pondered.move();
+            }
+            MoveEngine engine = engineFor(level);
+            long started = System.nanoTime();
+            int[] mv = engine.chooseMove(b, player2.getNumber());
+            long elapsed = System.nanoTime() - started;
+            SearchTelemetry.get().record(level, engine.lastNodes(), engine.lastDepth(), elapsed);
+            event.nodes = engine.lastNodes();
+            event.depth = engine.lastDepth();
+            event.searchNanos = elapsed;
+            event.commit();
+            return mv;
+        } catch (Exception e) {
+            return getFallbackMove(b);
+        }
+    }
+
+    private synchronized MoveEngine engineFor(int level) {
+        if (engines[level] == null) {
+            engines[level] = MoveEngine.forLevel(level, rng, searchThreads());
+        }
+        return engines[level];
+    }
+
+    private static int searchThreads() {
+        return Integer.getInteger("tictactoe.searchThreads", Runtime.getRuntime().availableProcessors());
     }
 
     private void resetBoardOnly() {
-        board = new Board();
-        clearBoardUI();
-        gameOver = false;
+        newGame();
         currentPlayer = player1;
         updateStatus();
     }
 
-    private void persistScores() {
-        store.save(ScoreStore.Scores.of(
-                pvp_p1Wins, pvp_p2Wins, pvp_draws,
-                pvc_pWins, pvc_cWins, pvc_draws
-        ));
+    // called by the application on exit: stops the AI and flushes scores still queued for writing
+    void shutdown() {
+        cancelComputerTurn();
+        aiExecutor.shutdownNow();
+        ponderer.shutdown();
+        warmup.shutdown();
+        profiles.close();
+        gameLog.close();
+    }
+
+    private void logGame(int result) {
+        gameLog.append(board, result, playerVsComputer, playerVsComputer ? computerDifficultyLevel : 0,
+                player1.getName(), player2.getName());
+    }
+
+    // off the FX thread: a dump copies up to the whole ring buffer
+    private void dumpRecording() {
+        aiExecutor.execute(() -> {
+            try {
+                Path file = GameEvents.dump();
+                System.err.println(file != null ? "Flight recording dumped to " + file : "No flight recording running (start with --jfr).");
+            } catch (IOException e) {
+                System.err.println("Flight recording dump failed: " + e);
+            }
+        });
+    }
+
+    private void updateStats() {
+        if (statsLabel.isVisible()) statsLabel.setText(SearchTelemetry.get().describeLast());
+    }
+
+    private void recordGame(int result) {
+        profiles.recordGame(player1.getName(), player2.getName(), playerVsComputer, computerDifficultyLevel, result);
+    }
+
+    // The lookup runs on the profile writer's thread, behind the updates already queued, and the
+    // answer comes back through runLater. Games finished meanwhile were counted here and are kept.
+    private void loadMatchScores() {
+        long started = StartupTimer.now();
+        int load = ++scoreLoads;
+        matchWins = matchLosses = matchDraws = 0;
+        CompletableFuture<ProfileStore.Profile> row = playerVsComputer
+                ? profiles.getAfterWrites(player1.getName(), ProfileStore.VS_COMPUTER, computerDifficultyLevel, "")
+                : profiles.getAfterWrites(player1.getName(), ProfileStore.VS_HUMAN, 0, player2.getName());
+        row.whenComplete((p, e) -> Platform.runLater(() -> {
+            if (load != scoreLoads) return;
+            if (e != null) {
+                statusLabel.setText(Translations.get(Msg.LOAD_FAILED) + ": " + e.getMessage());
+                return;
+            }
+            matchWins += p.wins;  matchLosses += p.losses;  matchDraws += p.draws;
+            updateScore();
+            StartupTimer.phase("score load", started);
+        }));
     }
 
     private void updateStatus() {
-        statusLabel.setText(Translations.translate("Current Player: ")
-                + currentPlayer.getName() + " (" + currentPlayer.getSymbol() + ")");
+        statusLabel.setText(text.status(currentPlayer));
     }
 
     private void updateScore() {
-        if (playerVsComputer) {
-            String p1 = (player1 != null) ? player1.getName() : "Player 1";
-            String linePvc = "[PvC] " + p1 + " = " + pvc_pWins + "  |  "
-                    + Translations.translate("Computer") + " = " + pvc_cWins + "  |  "
-                    + Translations.translate("Draws") + ": " + pvc_draws;
-            scoreLabel.setText(linePvc);
-        } else {
-            String p1 = (player1 != null) ? player1.getName() : "Player 1";
-            String p2 = (player2 != null) ? player2.getName() : "Player 2";
-            String linePvp = "[PvP] " + p1 + " = " + pvp_p1Wins + "  |  "
-                    + p2 + " = " + pvp_p2Wins + "  |  "
-                    + Translations.translate("Draws") + ": " + pvp_draws;
-            scoreLabel.setText(linePvp);
-        }
+        scoreLabel.setText(text.score(matchWins, matchLosses, matchDraws));
     }
 
     private void updateButtonsText() {
-        newRoundBtn.setText(Translations.translate("New Round"));
-        resetScoresBtn.setText(Translations.translate("Reset Scores"));
-        setupBtn.setText(Translations.translate("Setup"));
+        newRoundBtn.setText(Translations.get(Msg.NEW_ROUND));
+        resetScoresBtn.setText(Translations.get(Msg.RESET_SCORES));
+        setupBtn.setText(Translations.get(Msg.SETUP));
         updateScore();
     }
 
     private void endGameAlert(String message) {
         Platform.runLater(() -> {
+            GameEvents.EndGameAlert event = new GameEvents.EndGameAlert();
+            event.begin();
+            event.message = message;
             Alert a = new Alert(Alert.AlertType.INFORMATION);
-            a.setTitle("Game Over");
+            a.setTitle(Translations.get(Msg.GAME_OVER));
             a.setHeaderText(message);
             a.setContentText("");
             try {
@@ -232,14 +403,15 @@ public class TicTacToeController {
                         TicTacToeApplication.class.getResource("app.css").toExternalForm()
                 );
             } catch (Exception ignored) { }
-            ButtonType again = new ButtonType(Translations.translate("New Round"), ButtonBar.ButtonData.OK_DONE);
-            ButtonType exit  = new ButtonType("Exit", ButtonBar.ButtonData.CANCEL_CLOSE);
+            ButtonType again = new ButtonType(Translations.get(Msg.NEW_ROUND), ButtonBar.ButtonData.OK_DONE);
+            ButtonType exit  = new ButtonType(Translations.get(Msg.EXIT), ButtonBar.ButtonData.CANCEL_CLOSE);
             a.getButtonTypes().setAll(again, exit);
 
-            if (boardGrid.getScene() != null && boardGrid.getScene().getWindow() != null) {
-                a.initOwner(boardGrid.getScene().getWindow());
+            if (boardHolder.getScene() != null && boardHolder.getScene().getWindow() != null) {
+                a.initOwner(boardHolder.getScene().getWindow());
             }
 
+            a.setOnShown(e -> event.commit());
             Optional<ButtonType> res = a.showAndWait();
             if (res.isPresent() && res.get() == again) {
                 resetBoardOnly();
@@ -247,77 +419,7 @@ public class TicTacToeController {
         });
     }
 
-    private int[] getComputerMove() {
-        int r, c;
-        do { r = rng.nextInt(3); c = rng.nextInt(3); } while (!board.isCellAvailable(r, c));
-        return new int[]{r, c};
-    }
-
-    private int[] getComputerMoveMedium() {
-        try {
-            for (int r = 0; r < 3; r++) for (int c = 0; c < 3; c++) if (board.isCellAvailable(r, c)) {
-                board.markCell(r, c, currentPlayer.getNumber());
-                if (board.checkWin(currentPlayer.getNumber())) { board.undoMove(r, c); return new int[]{r, c}; }
-                board.undoMove(r, c);
-            }
-            Player opp = (currentPlayer == player1) ? player2 : player1;
-            for (int r = 0; r < 3; r++) for (int c = 0; c < 3; c++) if (board.isCellAvailable(r, c)) {
-                board.markCell(r, c, opp.getNumber());
-                if (board.checkWin(opp.getNumber())) { board.undoMove(r, c); return new int[]{r, c}; }
-                board.undoMove(r, c);
-            }
-            return getComputerMove();
-        } catch (Exception e) {
-            return getFallbackMove();
-        }
-    }
-
-    private int[] getComputerMoveHard() {
-        int bestScore = Integer.MIN_VALUE;
-        int[] bestMove = null;
-        try {
-            for (int r = 0; r < board.getSize(); r++) {
-                for (int c = 0; c < board.getSize(); c++) {
-                    if (board.isCellAvailable(r, c)) {
-                        board.makeMove(r, c, player2.getNumber());
-                        int score = miniMax(false, 0);
-                        board.undoMove(r, c);
-                        if (score > bestScore) {
-                            bestScore = score;
-                            bestMove = new int[]{r, c};
-                        }
-                    }
-                }
-            }
-            if (bestMove == null) bestMove = getFallbackMove();
-        } catch (Exception e) {
-            bestMove = getFallbackMove();
-        }
-        return bestMove;
-    }
-
-    private int miniMax(boolean isMax, int depth) {
-        if (board.checkWin(player2.getNumber())) return 10 - depth;
-        if (board.checkWin(player1.getNumber())) return depth - 10;
-        if (board.isFull()) return 0;
-
-        int best = isMax ? Integer.MIN_VALUE : Integer.MAX_VALUE;
-
-        for (int r = 0; r < board.getSize(); r++) {
-            for (int c = 0; c < board.getSize(); c++) {
-                if (board.isCellAvailable(r, c)) {
-                    int symbol = isMax ? player2.getNumber() : player1.getNumber();
-                    board.makeMove(r, c, symbol);
-                    int score = miniMax(!isMax, depth + 1);
-                    board.undoMove(r, c);
-                    best = isMax ? Math.max(best, score) : Math.min(best, score);
-                }
-            }
-        }
-        return best;
-    }
-
-    private int[] getFallbackMove() {
+    private int[] getFallbackMove(Board board) {
         for (int r = 0; r < board.getSize(); r++) {
             for (int c = 0; c < board.getSize(); c++) {
                 if (board.isCellAvailable(r, c)) return new int[]{r, c};
@@ -327,24 +429,46 @@ public class TicTacToeController {
     }
 
     private void configureGameWithDialog() {
-        board = new Board();
-        clearBoardUI();
-        gameOver = false;
-
+        cancelComputerTurn();
         Optional<SetupResult> res = showSetupDialog();
-        SetupResult cfg = res.orElseGet(() -> defaultSetupFromPrefs());
+        applySetup(res.orElseGet(() -> defaultSetupFromPrefs()));
+        newGame();
+        // after the dialog rather than in initialize, so it never competes with startup
+        if (warmingUp && playerVsComputer) warmup.start(computerDifficultyLevel, board.getSize(), board.getWinLength());
+    }
+
+    private void newGame() {
+        cancelComputerTurn();
+        game.reset();
+        board = game.getBoard();
+        view.setBoard(board);
+        view.setEnabled(true);
+        gameOver = false;
+        startPondering();
+    }
 
+    private void applySetup(SetupResult cfg) {
         prefs.put("lang", cfg.language);
         prefs.put("mode", cfg.vsComputer ? "PvC" : "PvP");
         prefs.put("p1", cfg.p1);
         prefs.put("p2", cfg.p2);
         prefs.putInt("diff", cfg.difficulty);
+        prefs.putInt("size", cfg.size);
+        prefs.putInt("win", cfg.winLength);
+
+        Board current = game.getBoard();
+        if (current.getSize() != cfg.size || current.getWinLength() != cfg.winLength) game = new GameEngine(cfg.size, cfg.winLength);
+        if (view == null || current.getSize() != cfg.size) {
+            view = BoardView.forSize(cfg.size);
+            view.setOnCellClicked(this::onCellClick);
+            boardHolder.getChildren().setAll(view.getNode());
+        }
 
         Translations.setLanguage(cfg.language);
         playerVsComputer = cfg.vsComputer;
         player1 = new Player(1, 'X', cfg.p1);
         if (playerVsComputer) {
-            player2 = new Player(2, 'O', Translations.translate("Computer"));
+            player2 = new Player(2, 'O', Translations.get(Msg.COMPUTER));
             computerDifficultyLevel = cfg.difficulty;
         } else {
             player2 = new Player(2, 'O', cfg.p2);
@@ -352,6 +476,8 @@ public class TicTacToeController {
         }
 
         currentPlayer = player1;
+        text.configure(player1, player2, playerVsComputer);
+        loadMatchScores();
         updateButtonsText();
         updateStatus();
     }
@@ -361,8 +487,8 @@ public class TicTacToeController {
         boolean vsComp = !prefs.get("mode", "PvC").equals("PvP");
         String p1 = prefs.get("p1", "Player 1");
         String p2 = prefs.get("p2", "Player 2");
-        int diff = prefs.getInt("diff", 1);
-        return new SetupResult(lang, vsComp, p1, p2, diff);
+        int diff = prefs.getInt("diff", 1);   // SetupResult falls back to 1 if the level's module is gone
+        return new SetupResult(lang, vsComp, p1, p2, diff, prefs.getInt("size", 3), prefs.getInt("win", 3));
     }
 
     private static final class SetupResult {
@@ -370,23 +496,29 @@ public class TicTacToeController {
         final boolean vsComputer;
         final String p1, p2;
         final int difficulty;
+        final int size, winLength;
 
-        SetupResult(String language, boolean vsComputer, String p1, String p2, int difficulty) {
+        SetupResult(String language, boolean vsComputer, String p1, String p2, int difficulty, int size, int winLength) {
             this.language = language == null ? "EN" : language;
             this.vsComputer = vsComputer;
             this.p1 = (p1 == null || p1.isBlank()) ? "Player 1" : p1.trim();
             this.p2 = (p2 == null || p2.isBlank()) ? "Player 2" : p2.trim();
-            this.difficulty = Math.min(3, Math.max(1, difficulty));
+            this.difficulty = MoveEngines.exists(difficulty) ? difficulty : 1;
+            this.size = Math.min(MAX_BOARD_SIZE, Math.max(3, size));
+            this.winLength = Math.min(this.size, Math.max(3, winLength));
         }
     }
 
     private Optional<SetupResult> showSetupDialog() {
+        GameEvents.SetupDialog event = new GameEvents.SetupDialog();
+        event.begin();
+        long opening = System.nanoTime();
         Dialog<SetupResult> dialog = new Dialog<>();
-        dialog.setTitle(Translations.translate("Setup"));
-        dialog.setHeaderText(Translations.translate("Game Preferences"));
+        dialog.setTitle(Translations.get(Msg.SETUP));
+        dialog.setHeaderText(Translations.get(Msg.GAME_PREFERENCES));
 
-        ButtonType ok = new ButtonType("OK", ButtonBar.ButtonData.OK_DONE);
-        ButtonType cancel = new ButtonType(Translations.translate("Cancel"), ButtonBar.ButtonData.CANCEL_CLOSE);
+        ButtonType ok = new ButtonType(Translations.get(Msg.OK), ButtonBar.ButtonData.OK_DONE);
+        ButtonType cancel = new ButtonType(Translations.get(Msg.CANCEL), ButtonBar.ButtonData.CANCEL_CLOSE);
         dialog.getDialogPane().getButtonTypes().addAll(ok, cancel);
 
         try {
@@ -402,62 +534,74 @@ public class TicTacToeController {
         gp.setPadding(new Insets(14, 16, 16, 16));
         dialog.getDialogPane().setContent(gp);
 
-        Label langHdr = new Label(Translations.translate("Language"));
+        Label langHdr = new Label(Translations.get(Msg.LANGUAGE));
         langHdr.getStyleClass().add("section-title");
 
-        Label modeHdr = new Label(Translations.translate("Mode"));
+        Label modeHdr = new Label(Translations.get(Msg.MODE));
         modeHdr.getStyleClass().add("section-title");
 
-        Label playersHdr = new Label(Translations.translate("Players"));
+        Label playersHdr = new Label(Translations.get(Msg.PLAYERS));
         playersHdr.getStyleClass().add("section-title");
 
-        Label diffHdr = new Label(Translations.translate("Difficulty"));
+        Label diffHdr = new Label(Translations.get(Msg.DIFFICULTY));
         diffHdr.getStyleClass().add("section-title");
 
+        Label boardHdr = new Label(Translations.get(Msg.BOARD));
+        boardHdr.getStyleClass().add("section-title");
+
         ComboBox<String> langBox = new ComboBox<>();
-        langBox.getItems().addAll("EN", "PL");
+        langBox.getItems().addAll(Translations.languages());
         langBox.getSelectionModel().select(prefs.get("lang", "EN"));
 
         ToggleGroup modeGroup = new ToggleGroup();
-        ToggleButton pvcBtn = new ToggleButton(Translations.translate("Player vs Computer"));
-        ToggleButton pvpBtn = new ToggleButton(Translations.translate("Player vs Player"));
+        ToggleButton pvcBtn = new ToggleButton(Translations.get(Msg.PLAYER_VS_COMPUTER));
+        ToggleButton pvpBtn = new ToggleButton(Translations.get(Msg.PLAYER_VS_PLAYER));
         pvcBtn.setToggleGroup(modeGroup); pvpBtn.setToggleGroup(modeGroup);
         if (prefs.get("mode", "PvC").equals("PvP")) pvpBtn.setSelected(true); else pvcBtn.setSelected(true);
         ToolBar modeBar = new ToolBar(pvcBtn, pvpBtn);
         modeBar.getStyleClass().add("segmented");
 
         TextField p1Field = new TextField(prefs.get("p1", "Player 1"));
-        p1Field.setPromptText(Translations.translate("Player 1 (X)"));
+        p1Field.setPromptText(Translations.get(Msg.PLAYER_1));
         p1Field.getStyleClass().add("rounded");
 
         TextField p2Field = new TextField(prefs.get("p2", "Player 2"));
-        p2Field.setPromptText(Translations.translate("Player 2 (O)"));
+        p2Field.setPromptText(Translations.get(Msg.PLAYER_2));
         p2Field.getStyleClass().add("rounded");
 
         ComboBox<String> diffBox = new ComboBox<>();
-        String easy = Translations.translate("Easy");
-        String medium = Translations.translate("Medium");
-        String hard = Translations.translate("Hard");
-        diffBox.getItems().addAll(easy, medium, hard);
-        int savedDiff = prefs.getInt("diff", 1);
-        diffBox.getSelectionModel().select(savedDiff == 3 ? hard : (savedDiff == 2 ? medium : easy));
+        int[] levels = MoveEngines.levels();
+        for (int level : levels) diffBox.getItems().add(MoveEngines.provider(level).displayName());
+        int savedLevel = Arrays.binarySearch(levels, prefs.getInt("diff", 1));
+        diffBox.getSelectionModel().select(Math.max(0, savedLevel));
+
+        Spinner<Integer> sizeBox = new Spinner<>(3, MAX_BOARD_SIZE, prefs.getInt("size", 3));
+        Spinner<Integer> winBox = new Spinner<>(3, MAX_BOARD_SIZE, prefs.getInt("win", 3));
+        sizeBox.setEditable(true);
+        winBox.setEditable(true);
 
         int r = 0;
         gp.add(langHdr, 0, r++, 2, 1);
-        gp.add(new Label(Translations.translate("Choose language:")), 0, r);
+        gp.add(new Label(Translations.get(Msg.CHOOSE_LANGUAGE)), 0, r);
         gp.add(langBox, 1, r++);
 
         gp.add(modeHdr, 0, r++, 2, 1);
         gp.add(modeBar, 0, r++, 2, 1);
 
         gp.add(playersHdr, 0, r++, 2, 1);
-        gp.add(new Label(Translations.translate("Player 1 (X)")), 0, r);
+        gp.add(new Label(Translations.get(Msg.PLAYER_1)), 0, r);
         gp.add(p1Field, 1, r++);
-        gp.add(new Label(Translations.translate("Player 2 (O)")), 0, r);
+        gp.add(new Label(Translations.get(Msg.PLAYER_2)), 0, r);
         gp.add(p2Field, 1, r++);
 
+        gp.add(boardHdr, 0, r++, 2, 1);
+        gp.add(new Label(Translations.get(Msg.BOARD_SIZE)), 0, r);
+        gp.add(sizeBox, 1, r++);
+        gp.add(new Label(Translations.get(Msg.WIN_LENGTH)), 0, r);
+        gp.add(winBox, 1, r++);
+
         gp.add(diffHdr, 0, r++, 2, 1);
-        gp.add(new Label(Translations.translate("Level")), 0, r);
+        gp.add(new Label(Translations.get(Msg.LEVEL)), 0, r);
         gp.add(diffBox, 1, r++);
 
         Runnable updateVisibility = () -> {
@@ -476,11 +620,15 @@ public class TicTacToeController {
             if (btn != ok) return null;
             String lang = langBox.getValue();
             boolean vsComp = pvcBtn.isSelected();
-            String diff = diffBox.getValue();
-            int level = diff == null ? 1 : (diff.equals(medium) ? 2 : (diff.equals(hard) ? 3 : 1));
-            return new SetupResult(lang, vsComp, p1Field.getText(), p2Field.getText(), level);
+            int level = levels[Math.max(0, diffBox.getSelectionModel().getSelectedIndex())];
+            return new SetupResult(lang, vsComp, p1Field.getText(), p2Field.getText(), level,
+                    sizeBox.getValue(), winBox.getValue());
         });
 
-        return dialog.showAndWait();
+        dialog.setOnShown(e -> event.openNanos = System.nanoTime() - opening);
+        Optional<SetupResult> res = dialog.showAndWait();
+        event.applied = res.isPresent();
+        event.commit();
+        return res;
     }
 }
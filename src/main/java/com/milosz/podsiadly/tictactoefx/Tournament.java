@@ -0,0 +1,134 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Headless AI-vs-AI runner: plays every ordered pairing of the chosen levels on all cores and
+// reports win/draw rates plus games and moves per second.
+//
+//   Tournament [--games N] [--threads T] [--seed S] [--size N] [--win K] [--levels 1,2,3]
+//
+// Games are dealt to workers round-robin and every worker has its own RNG split from the seed,
+// so a run is reproducible for a given seed and thread count.
+public class Tournament {
+    private static final String[] LEVEL_NAMES = {"", "Easy", "Medium", "Hard", "Expert", "Learned"};
+
+    private Tournament() {}
+
+    private static String levelName(int level) { return level < LEVEL_NAMES.length ? LEVEL_NAMES[level] : "L" + level; }
+
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        long games = 1_000_000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = 42;
+        int size = 3, winLength = 3;
+        String levelList = "1,2,3";
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--games" -> games = Long.parseLong(args[i + 1]);
+                case "--threads" -> threads = Integer.parseInt(args[i + 1]);
+                case "--seed" -> seed = Long.parseLong(args[i + 1]);
+                case "--size" -> size = Integer.parseInt(args[i + 1]);
+                case "--win" -> winLength = Integer.parseInt(args[i + 1]);
+                case "--levels" -> levelList = args[i + 1];
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        List<int[]> pairings = new ArrayList<>();
+        String[] levels = levelList.split(",");
+        for (String x : levels) {
+            if (!MoveEngines.exists(Integer.parseInt(x.trim()))) throw new IllegalArgumentException("No engine for level " + x.trim() + ".");
+        }
+        for (String x : levels) for (String o : levels) pairings.add(new int[]{Integer.parseInt(x.trim()), Integer.parseInt(o.trim())});
+        long perPairing = Math.max(1, games / pairings.size());
+
+        System.out.printf("%d games per pairing, %dx%d board, %d in a row, %d threads, seed %d%n",
+                perPairing, size, size, winLength, threads, seed);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        SplittableRandom master = new SplittableRandom(seed);
+        List<Future<Worker>> running = new ArrayList<>();
+        long started = System.nanoTime();
+        long[][] results = new long[pairings.size()][3];
+        long moves = 0;
+        try {
+            for (int w = 0; w < threads; w++) {
+                Worker worker = new Worker(w, threads, pairings, perPairing, size, winLength, master.split());
+                running.add(pool.submit(worker::run));
+            }
+            for (Future<Worker> f : running) {
+                Worker worker = f.get();
+                moves += worker.moves;
+                for (int p = 0; p < pairings.size(); p++) for (int i = 0; i < 3; i++) results[p][i] += worker.results[p][i];
+            }
+        } finally {
+            // the pool's threads aren't daemons: a failed worker must not leave the JVM running
+            pool.shutdown();
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        long total = 0;
+        for (int p = 0; p < pairings.size(); p++) {
+            long[] r = results[p];
+            long n = r[0] + r[1] + r[2];
+            total += n;
+            System.out.printf("X=%-6s vs O=%-6s  X wins %6.2f%%  O wins %6.2f%%  draws %6.2f%%%n",
+                    levelName(pairings.get(p)[0]), levelName(pairings.get(p)[1]),
+                    100.0 * r[1] / n, 100.0 * r[2] / n, 100.0 * r[0] / n);
+        }
+        System.out.printf("%d games, %d moves in %.2f s: %.0f games/s, %.0f moves/s%n",
+                total, moves, seconds, total / seconds, moves / seconds);
+    }
+
+    private static final class Worker {
+        private final int id, stride;
+        private final List<int[]> pairings;
+        private final long perPairing;
+        private final GameEngine game;
+        private final MoveEngine[] engines = new MoveEngine[MoveEngines.maxLevel() + 1];
+        final long[][] results;   // per pairing: draws, X wins, O wins
+        long moves;
+
+        Worker(int id, int stride, List<int[]> pairings, long perPairing, int size, int winLength, SplittableRandom rng) {
+            this.id = id;
+            this.stride = stride;
+            this.pairings = pairings;
+            this.perPairing = perPairing;
+            this.game = new GameEngine(size, winLength);
+            this.results = new long[pairings.size()][3];
+            for (int[] p : pairings) {
+                for (int level : p) if (engines[level] == null) engines[level] = MoveEngine.forLevel(level, rng, 1);
+            }
+        }
+
+        Worker run() {
+            long index = 0;
+            for (int p = 0; p < pairings.size(); p++) {
+                MoveEngine x = engines[pairings.get(p)[0]], o = engines[pairings.get(p)[1]];
+                for (long g = 0; g < perPairing; g++, index++) {
+                    if (index % stride != id) continue;
+                    results[p][playOne(x, o)]++;
+                }
+            }
+            return this;
+        }
+
+        private int playOne(MoveEngine x, MoveEngine o) {
+            game.reset();
+            while (!game.isOver()) {
+                int player = game.getCurrentPlayer();
+                int[] mv = (player == 1 ? x : o).chooseMove(game.getBoard(), player);
+                if (mv == null || !game.isLegal(mv[0], mv[1])) throw new IllegalStateException("engine returned an illegal move");
+                game.play(mv[0], mv[1]);
+                moves++;
+            }
+            return game.getWinner();
+        }
+    }
+}
@@ -1,63 +1,69 @@
 package com.milosz.podsiadly.tictactoefx;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Message catalog. Each language is read once, on first use, from messages_<code>.properties over
+// the English messages.properties and flattened into an array indexed by Msg.ordinal(), so a
+// lookup is a single array load.
 public class Translations {
-    private static String currentLanguage = "EN";
-    public static void setLanguage(String language) { currentLanguage = language.toUpperCase(); }
-
-    public static String translate(String message) {
-        return switch (currentLanguage) {
-            case "PL" -> switch (message) {
-                case "Enter name for Player 1 (X):" -> "Podaj imię dla Gracza 1 (X):";
-                case "Enter name for Player 2 (O):" -> "Podaj imię dla Gracza 2 (O):";
-                case "Current Player: " -> "Aktualny gracz: ";
-                case "Invalid move! Try again." -> "Nieprawidłowy ruch! Spróbuj ponownie.";
-                case "Player " -> "Gracz ";
-                case "wins!" -> "wygrywa!";
-                case "It's a draw!" -> "Remis!";
-                case "Player vs Computer" -> "Gracz vs Komputer";
-                case "Player vs Player" -> "Gracz vs Gracz";
-                case "Choose mode (1/2): " -> "Wybierz tryb gry (1/2): ";
-                case "Language / Język" -> "Język";
-                case "Mode" -> "Tryb";
-                case "Choose language / Wybierz język:" -> "Wybierz język:";
-                case "Easy" -> "Łatwy";
-                case "Medium" -> "Średni";
-                case "Hard" -> "Trudny";
-                case "Computer" -> "Komputer";
-                case "Choose difficulty level (1-3): " -> "Wybierz poziom trudności (1-3): ";
-                case "New Round" -> "Nowa runda";
-                case "Reset Scores" -> "Wyzeruj wyniki";
-                case "Setup" -> "Ustawienia";
-                case "Score" -> "Wynik";
-                case "Draws" -> "Remisy";
-                default -> message;
-            };
-            default -> switch (message) {
-                case "Enter name for Player 1 (X):" -> "Enter name for Player 1 (X):";
-                case "Enter name for Player 2 (O):" -> "Enter name for Player 2 (O):";
-                case "Current Player: " -> "Current Player: ";
-                case "Invalid move! Try again." -> "Invalid move! Try again.";
-                case "Player " -> "Player ";
-                case "wins!" -> "wins!";
-                case "It's a draw!" -> "It's a draw!";
-                case "Player vs Computer" -> "Player vs Computer";
-                case "Player vs Player" -> "Player vs Player";
-                case "Choose mode (1/2): " -> "Choose mode (1/2): ";
-                case "Language / Język" -> "Language";
-                case "Mode" -> "Mode";
-                case "Choose language / Wybierz język:" -> "Choose language:";
-                case "Easy" -> "Easy";
-                case "Medium" -> "Medium";
-                case "Hard" -> "Hard";
-                case "Computer" -> "Computer";
-                case "Choose difficulty level (1-3): " -> "Choose difficulty level (1-3): ";
-                case "New Round" -> "New Round";
-                case "Reset Scores" -> "Reset Scores";
-                case "Setup" -> "Setup";
-                case "Score" -> "Score";
-                case "Draws" -> "Draws";
-                default -> message;
-            };
-        };
+    private static final String BASE = "messages";
+    private static final Map<String, String[]> loaded = new ConcurrentHashMap<>();
+    private static volatile String currentLanguage = "EN";
+    private static volatile String[] current;
+
+    private Translations() {}
+
+    public static void setLanguage(String language) {
+        String code = language == null ? "EN" : language.toUpperCase(Locale.ROOT);
+        current = loaded.computeIfAbsent(code, Translations::load);
+        currentLanguage = code;
+    }
+
+    public static String getLanguage() { return currentLanguage; }
+
+    public static String get(Msg msg) {
+        String[] table = current;
+        if (table == null) {
+            setLanguage(currentLanguage);
+            table = current;
+        }
+        return table[msg.ordinal()];
+    }
+
+    // language codes with a catalog, as listed in messages.properties
+    public static List<String> languages() {
+        Properties base = read(BASE + ".properties", new Properties());
+        return List.of(base.getProperty("languages", "EN").split("\\s*,\\s*"));
+    }
+
+    private static String[] load(String code) {
+        Properties props = read(BASE + ".properties", new Properties());
+        if (!code.equals("EN")) props = read(BASE + "_" + code.toLowerCase(Locale.ROOT) + ".properties", props);
+        Msg[] all = Msg.values();
+        String[] table = new String[all.length];
+        for (Msg m : all) table[m.ordinal()] = props.getProperty(m.key, m.key);
+        return table;
+    }
+
+    // layers the file's entries over defaults; a missing file just leaves the defaults
+    private static Properties read(String resource, Properties defaults) {
+        Properties props = new Properties();
+        props.putAll(defaults);
+        try (InputStream in = Translations.class.getResourceAsStream(resource)) {
+            if (in != null) {
+                try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) { props.load(reader); }
+            }
+        } catch (IOException ignored) {
+        }
+        return props;
     }
 }
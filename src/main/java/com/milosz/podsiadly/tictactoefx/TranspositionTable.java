@@ -0,0 +1,77 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import java.util.Arrays;
+
+// Fixed-size hash table of search results in two parallel primitive arrays. Entries live in
+// two-slot buckets: slot 0 keeps the deepest result seen (depth-preferred), slot 1 always takes
+// the newest one, so shallow churn can't evict expensive subtrees.
+//
+// The table may be shared by parallel searchers without locks: each slot stores key ^ data next
+// to data, so a slot torn by a concurrent writer simply fails the key check and reads as a miss.
+// The statistics counters are best-effort under sharing.
+public class TranspositionTable {
+    public static final int EXACT = 1, LOWER = 2, UPPER = 3;
+    public static final long MISS = 0;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int bucketMask;
+    private long probes, hits, stores;
+
+    public TranspositionTable(int log2Entries) {
+        if (log2Entries < 1 || log2Entries > 28) throw new IllegalArgumentException("Table size must be 2^1 .. 2^28 entries.");
+        keys = new long[1 << log2Entries];
+        data = new long[1 << log2Entries];
+        bucketMask = (1 << (log2Entries - 1)) - 1;
+    }
+
+    // packed entry, or MISS; decode with value()/move()/depth()/flag()
+    public long probe(long key) {
+        probes++;
+        int i = bucket(key);
+        long d0 = data[i], d1 = data[i + 1];
+        if (d0 != 0 && (keys[i] ^ d0) == key) { hits++; return d0; }
+        if (d1 != 0 && (keys[i + 1] ^ d1) == key) { hits++; return d1; }
+        return MISS;
+    }
+
+    public void store(long key, int value, int move, int depth, int flag) {
+        stores++;
+        long entry = (value & 0xFFFFFFFFL)
+                | ((long) (move + 1) & 0xFFFF) << 32
+                | ((long) Math.min(depth, 0x3FFF)) << 48
+                | ((long) flag) << 62;
+        int i = bucket(key);
+        long d0 = data[i], k0 = keys[i] ^ d0;
+        if (d0 == 0 || k0 == key || depth(d0) <= depth) {
+            if (d0 != 0 && k0 != key) { keys[i + 1] = keys[i]; data[i + 1] = d0; }
+            keys[i] = key ^ entry; data[i] = entry;
+        } else {
+            keys[i + 1] = key ^ entry; data[i + 1] = entry;
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(data, 0);
+        probes = hits = stores = 0;
+    }
+
+    public int capacity() { return keys.length; }
+
+    public long getProbes() { return probes; }
+
+    public long getHits() { return hits; }
+
+    public long getStores() { return stores; }
+
+    public static int value(long entry) { return (int) entry; }
+
+    public static int move(long entry) { return (int) ((entry >>> 32) & 0xFFFF) - 1; }
+
+    public static int depth(long entry) { return (int) ((entry >>> 48) & 0x3FFF); }
+
+    public static int flag(long entry) { return (int) (entry >>> 62); }
+
+    private int bucket(long key) { return (int) ((key ^ (key >>> 32)) & bucketMask) << 1; }
+}
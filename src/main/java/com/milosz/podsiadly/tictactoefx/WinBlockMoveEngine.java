@@ -0,0 +1,31 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import java.util.random.RandomGenerator;
+
+// Medium: take a winning cell if there is one, otherwise block the opponent's, otherwise play randomly.
+// Both questions come from a LineEvaluator rebuilt from the stones on the board, not by trying every cell.
+public class WinBlockMoveEngine implements MoveEngine {
+    private final RandomMoveEngine fallback;
+    private LineEvaluator lines;
+
+    public WinBlockMoveEngine(RandomGenerator rng) { this.fallback = new RandomMoveEngine(rng); }
+
+    @Override
+    public int[] chooseMove(Board board, int player) {
+        int size = board.getSize();
+        if (lines == null || lines.getSize() != size || lines.getWinLength() != board.getWinLength()) {
+            lines = new LineEvaluator(size, board.getWinLength());
+        }
+        lines.reset(board);
+        int cell = lines.winningCell(player);
+        if (cell < 0) cell = lines.mustBlock(player);
+        if (cell >= 0) return new int[]{cell / size, cell % size};
+        return fallback.chooseMove(board, player);
+    }
+
+    @Override
+    public long lastNodes() { return 1; }
+
+    @Override
+    public int lastDepth() { return 1; }
+}
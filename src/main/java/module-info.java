@@ -1,9 +1,21 @@
 module com.milosz.podsiadly.tictactoefx {
-    requires javafx.controls;
+    // transitive: TicTacToeApplication exposes javafx.graphics types (Application, Stage)
+    requires transitive javafx.controls;
     requires javafx.fxml;
 
     opens com.milosz.podsiadly.tictactoefx to javafx.fxml;
     exports com.milosz.podsiadly.tictactoefx;
 
     requires java.prefs;
+    requires java.management;
+    requires jdk.jfr;
+
+    // difficulty levels; other modules can add their own
+    uses com.milosz.podsiadly.tictactoefx.MoveEngineProvider;
+    provides com.milosz.podsiadly.tictactoefx.MoveEngineProvider with
+            com.milosz.podsiadly.tictactoefx.MoveEngines.Easy,
+            com.milosz.podsiadly.tictactoefx.MoveEngines.Medium,
+            com.milosz.podsiadly.tictactoefx.MoveEngines.Hard,
+            com.milosz.podsiadly.tictactoefx.MoveEngines.Expert,
+            com.milosz.podsiadly.tictactoefx.MoveEngines.Learned;
 }
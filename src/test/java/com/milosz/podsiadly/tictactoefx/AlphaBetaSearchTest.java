@@ -0,0 +1,106 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlphaBetaSearchTest {
+    private final ParallelSearch parallel = new ParallelSearch(4, 2, 16);
+
+    @AfterEach
+    void shutdown() { parallel.shutdown(); }
+
+    // a live position of the shape with at most maxEmpty free cells, or null if the game ended first
+    private static Board randomPosition(int size, int k, int maxEmpty, SplittableRandom rng) {
+        Board board = new Board(size, k);
+        int stones = Math.max(0, size * size - maxEmpty) + rng.nextInt(Math.min(size * size, maxEmpty));
+        int player = 1;
+        for (int i = 0; i < stones; i++) {
+            int cell;
+            do cell = rng.nextInt(size * size); while (board.getCell(cell / size, cell % size) != 0);
+            board.makeMove(cell / size, cell % size, player);
+            if (board.checkWin(player)) return null;
+            player = 3 - player;
+        }
+        return board;
+    }
+
+    private static int toMove(Board board) { return board.getMoveCount() % 2 == 0 ? 1 : 2; }
+
+    // The searches may pick a different best move, but never a different value: the value
+    // includes the distance to the win or loss, so this also checks the TT's mate scores.
+    private void compareWithReference(int size, int k, int maxEmpty, int positions, long seed) {
+        SplittableRandom rng = new SplittableRandom(seed);
+        AlphaBetaSearch sequential = new AlphaBetaSearch(16);
+        int checked = 0;
+        while (checked < positions) {
+            Board board = randomPosition(size, k, maxEmpty, rng);
+            if (board == null || board.isFull()) continue;
+            int player = toMove(board);
+            AlphaBetaSearch.SearchResult expected = AlphaBetaSearch.referenceMiniMax(board.copy(), player);
+            AlphaBetaSearch.SearchResult actual = sequential.search(board.copy(), player);
+            AlphaBetaSearch.SearchResult split = parallel.search(board.copy(), player);
+            assertNotNull(actual);
+            assertEquals(expected.value, actual.value, () -> size + "x" + size + " k" + k + " sequential");
+            assertEquals(expected.value, split.value, () -> size + "x" + size + " k" + k + " parallel");
+            assertMoveKeepsValue(board, player, actual);
+            checked++;
+        }
+    }
+
+    // the move the search returns must itself reach the value it reports
+    private static void assertMoveKeepsValue(Board board, int player, AlphaBetaSearch.SearchResult result) {
+        Board after = board.copy();
+        assertTrue(after.makeMove(result.row, result.col, player));
+        int value = after.checkWin(player) ? AlphaBetaSearch.WIN - 1 : after.isFull() ? 0
+                : -shiftPly(AlphaBetaSearch.referenceMiniMax(after, 3 - player).value);
+        assertEquals(result.value, value);
+    }
+
+    // a value seen one ply deeper, moved back to the parent's ply
+    private static int shiftPly(int value) {
+        return value > 0 ? value - 1 : value < 0 ? value + 1 : 0;
+    }
+
+    @Test
+    void emptyThreeByThreeIsADraw() {
+        AlphaBetaSearch.SearchResult result = new AlphaBetaSearch().search(new Board(), 1);
+        assertEquals(0, result.value);
+        assertEquals(0, result.outcome());
+    }
+
+    @Test
+    void matchesReferenceOnThreeByThree() {
+        compareWithReference(3, 3, 9, 300, 3);
+    }
+
+    @Test
+    void matchesReferenceOnFourByFour() {
+        compareWithReference(4, 3, 8, 150, 43);
+        compareWithReference(4, 4, 8, 150, 44);
+    }
+
+    @Test
+    void matchesReferenceOnFiveByFive() {
+        compareWithReference(5, 4, 7, 60, 54);
+    }
+
+    @Test
+    void takesAnImmediateWin() {
+        Board board = new Board();
+        board.makeMove(0, 0, 1);
+        board.makeMove(1, 0, 2);
+        board.makeMove(0, 1, 1);
+        board.makeMove(1, 1, 2);
+        AlphaBetaSearch.SearchResult result = new AlphaBetaSearch().search(board, 1);
+        assertEquals(1, result.outcome());
+        assertEquals(1, result.plies());
+        assertEquals(0, result.row);
+        assertEquals(2, result.col);
+    }
+}
@@ -0,0 +1,107 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoardTest {
+
+    // every k-long line of player's stones, found by scanning the whole board
+    private static boolean scanForWin(Board board, int player) {
+        int size = board.getSize(), k = board.getWinLength();
+        int[][] directions = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                for (int[] d : directions) {
+                    int i = 0;
+                    for (int r = row, c = col; i < k && r >= 0 && r < size && c >= 0 && c < size && board.getCell(r, c) == player;
+                         r += d[0], c += d[1]) i++;
+                    if (i == k) return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // random games to the end, checking the last-stone test against a full scan after every move
+    private static void playRandomGames(int size, int k, int games, long seed) {
+        SplittableRandom rng = new SplittableRandom(seed);
+        int[] free = new int[size * size];
+        for (int g = 0; g < games; g++) {
+            Board board = new Board(size, k);
+            int left = size * size, player = 1;
+            for (int i = 0; i < left; i++) free[i] = i;
+            while (left > 0) {
+                int pick = rng.nextInt(left), cell = free[pick];
+                free[pick] = free[--left];
+                assertTrue(board.makeMove(cell / size, cell % size, player));
+                boolean won = scanForWin(board, player);
+                assertEquals(won, board.checkWin(player), () -> size + "x" + size + " k" + k + " after " + board.getMoveCount() + " moves");
+                if (won) break;
+                assertFalse(board.checkWin(3 - player));
+                player = 3 - player;
+            }
+        }
+    }
+
+    @Test
+    void checkWinMatchesFullScanOnMaskedBoards() {
+        for (int size = 1; size <= 8; size++) {
+            for (int k = 1; k <= size; k++) playRandomGames(size, k, 300, size * 31L + k);
+        }
+    }
+
+    @Test
+    void checkWinMatchesFullScanOnLargeBoards() {
+        playRandomGames(9, 5, 200, 9);
+        playRandomGames(15, 5, 50, 15);
+        playRandomGames(19, 6, 20, 19);
+    }
+
+    @Test
+    void winMasksCoverEveryLine() {
+        for (int size = 1; size <= 8; size++) {
+            for (int k = 1; k <= size; k++) {
+                long[] masks = Board.winMasks(size, k);
+                int runs = size - k + 1;
+                // rows and columns, plus both diagonals unless k is 1 (then all four directions repeat the cell)
+                int expected = k == 1 ? 4 * size * size : 2 * size * runs + 2 * runs * runs;
+                assertEquals(expected, masks.length, size + "x" + size + " k" + k);
+                for (long mask : masks) assertEquals(k, Long.bitCount(mask));
+            }
+        }
+    }
+
+    @Test
+    void undoRestoresTheBoard() {
+        Board board = new Board(4, 3);
+        board.makeMove(0, 0, 1);
+        board.makeMove(1, 1, 2);
+        board.makeMove(0, 1, 1);
+        board.makeMove(2, 2, 2);
+        board.undoMove(1, 1);
+        assertEquals(3, board.getMoveCount());
+        assertArrayEquals(new int[]{0, 1, 10}, new int[]{board.getMove(0), board.getMove(1), board.getMove(2)});
+        assertTrue(board.isCellAvailable(1, 1));
+        board.makeMove(0, 2, 1);
+        assertTrue(board.checkWin(1));
+        assertFalse(board.checkWin(2));
+    }
+
+    @Test
+    void rejectsBadShapes() {
+        assertThrows(IllegalArgumentException.class, () -> new Board(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new Board(65, 5));
+        assertThrows(IllegalArgumentException.class, () -> new Board(3, 4));
+        assertThrows(IllegalArgumentException.class, () -> new Board(3, 3).isCellAvailable(3, 0));
+        // a column past the edge must not land on the next row
+        assertThrows(IllegalArgumentException.class, () -> new Board(3, 3).makeMove(0, 3, 1));
+        assertThrows(IllegalArgumentException.class, () -> new Board(4, 3).makeMove(-1, 2, 1));
+    }
+}
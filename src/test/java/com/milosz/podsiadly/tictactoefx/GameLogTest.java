@@ -0,0 +1,286 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameLogTest {
+    @TempDir
+    Path dir;
+
+    // what a record read back must say
+    private static final class Game {
+        final int size, winLength, result, difficulty;
+        final boolean vsComputer;
+        final String nameX, nameO;
+        final int[] moves;
+
+        Game(Board board, int result, boolean vsComputer, int difficulty, String nameX, String nameO) {
+            this.size = board.getSize();
+            this.winLength = board.getWinLength();
+            this.result = result;
+            this.vsComputer = vsComputer;
+            this.difficulty = difficulty;
+            this.nameX = nameX;
+            this.nameO = nameO;
+            this.moves = new int[board.getMoveCount()];
+            for (int i = 0; i < moves.length; i++) moves[i] = board.getMove(i);
+        }
+    }
+
+    private static Game randomGame(SplittableRandom rng, int size, int k) {
+        Board board = new Board(size, k);
+        int player = 1, result = GameLog.DRAW;
+        while (!board.isFull()) {
+            int cell;
+            do cell = rng.nextInt(size * size); while (board.getCell(cell / size, cell % size) != 0);
+            board.makeMove(cell / size, cell % size, player);
+            if (board.checkWin(player)) {
+                result = player == 1 ? GameLog.X_WON : GameLog.O_WON;
+                break;
+            }
+            player = 3 - player;
+        }
+        boolean vsComputer = rng.nextBoolean();
+        return new Game(board, result, vsComputer, vsComputer ? 1 + rng.nextInt(5) : 0, "X" + rng.nextInt(100), vsComputer ? "" : "Zoë " + rng.nextInt(100));
+    }
+
+    private static List<Game> readAll(Path file) throws IOException {
+        List<Game> games = new ArrayList<>();
+        GameLog.scan(file, r -> {
+            Board board = new Board(r.getSize(), r.getWinLength());
+            for (int i = 0; i < r.getMoveCount(); i++) {
+                int cell = r.getMove(i);
+                board.makeMove(cell / r.getSize(), cell % r.getSize(), i % 2 == 0 ? 1 : 2);
+            }
+            games.add(new Game(board, r.getResult(), r.isVsComputer(), r.getDifficulty(), r.getNameX(), r.getNameO()));
+        });
+        return games;
+    }
+
+    private static void assertSame(Game expected, Game actual) {
+        assertEquals(expected.size, actual.size);
+        assertEquals(expected.winLength, actual.winLength);
+        assertEquals(expected.result, actual.result);
+        assertEquals(expected.vsComputer, actual.vsComputer);
+        assertEquals(expected.difficulty, actual.difficulty);
+        assertEquals(expected.nameX, actual.nameX);
+        assertEquals(expected.nameO, actual.nameO);
+        assertArrayEquals(expected.moves, actual.moves);
+    }
+
+    private void append(GameLog log, Game g) {
+        Board board = new Board(g.size, g.winLength);
+        for (int i = 0; i < g.moves.length; i++) board.makeMove(g.moves[i] / g.size, g.moves[i] % g.size, i % 2 == 0 ? 1 : 2);
+        log.append(board, g.result, g.vsComputer, g.difficulty, g.nameX, g.nameO);
+    }
+
+    @Test
+    void recordsRoundTripOnEveryMoveWidth() throws IOException {
+        SplittableRandom rng = new SplittableRandom(12);
+        int[][] shapes = {{3, 3}, {4, 3}, {5, 4}, {8, 5}, {9, 5}, {15, 5}, {33, 5}, {64, 5}};
+        List<Game> written = new ArrayList<>();
+        try (GameLog log = new GameLog(dir)) {
+            for (int i = 0; i < 400; i++) {
+                int[] shape = shapes[i % shapes.length];
+                Game g = randomGame(rng, shape[0], shape[1]);
+                written.add(g);
+                append(log, g);
+            }
+        }
+        List<Game> read = readAll(dir.resolve(GameLog.FILE));
+        assertEquals(written.size(), read.size());
+        for (int i = 0; i < written.size(); i++) assertSame(written.get(i), read.get(i));
+    }
+
+    @Test
+    void tornTailIsCutOffBeforeAppending() throws IOException {
+        SplittableRandom rng = new SplittableRandom(13);
+        List<Game> written = new ArrayList<>();
+        try (GameLog log = new GameLog(dir)) {
+            for (int i = 0; i < 20; i++) {
+                Game g = randomGame(rng, 3, 3);
+                written.add(g);
+                append(log, g);
+            }
+        }
+        // a crash halfway through the next record
+        Path file = dir.resolve(GameLog.FILE);
+        long intact = Files.size(file);
+        Board board = new Board();
+        board.makeMove(1, 1, 1);
+        ByteBuffer record = GameLog.encode(0, board, GameLog.DRAW, false, 0, "torn", "record");
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ch.write(record.limit(record.limit() / 2));
+        }
+        assertEquals(20, readAll(file).size());
+
+        try (GameLog log = new GameLog(dir)) {
+            for (int i = 0; i < 20; i++) {
+                Game g = randomGame(rng, 4, 3);
+                written.add(g);
+                append(log, g);
+            }
+            log.flush();
+            assertTrue(Files.size(file) > intact);
+        }
+        List<Game> read = readAll(file);
+        assertEquals(written.size(), read.size());
+        for (int i = 0; i < written.size(); i++) assertSame(written.get(i), read.get(i));
+    }
+
+    @Test
+    void zeroedTailIsNotReadAsRecords() throws IOException {
+        try (GameLog log = new GameLog(dir)) {
+            append(log, randomGame(new SplittableRandom(14), 3, 3));
+        }
+        Path file = dir.resolve(GameLog.FILE);
+        Files.write(file, new byte[64], StandardOpenOption.APPEND);
+        assertEquals(1, readAll(file).size());
+        try (GameLog log = new GameLog(dir)) {
+            append(log, randomGame(new SplittableRandom(15), 3, 3));
+        }
+        assertEquals(2, readAll(file).size());
+    }
+
+    @Test
+    void statsCountResultsByMode() throws IOException {
+        SplittableRandom rng = new SplittableRandom(16);
+        int pvpX = 0, pvpO = 0, pvpDraws = 0, pvcPlayer = 0, pvcComputer = 0, pvcDraws = 0;
+        Map<List<Object>, Integer> gamesPerMatchup = new HashMap<>();
+        List<Game> all = new ArrayList<>();
+        try (GameLog log = new GameLog(dir)) {
+            for (int i = 0; i < 500; i++) {
+                Game g = randomGame(rng, 3, 3);
+                append(log, g);
+                all.add(g);
+                gamesPerMatchup.merge(matchupKey(g), 1, Integer::sum);
+                if (g.vsComputer) {
+                    if (g.result == GameLog.X_WON) pvcPlayer++; else if (g.result == GameLog.O_WON) pvcComputer++; else pvcDraws++;
+                } else {
+                    if (g.result == GameLog.X_WON) pvpX++; else if (g.result == GameLog.O_WON) pvpO++; else pvpDraws++;
+                }
+            }
+        }
+        GameLog.Stats stats = new GameLog.Stats();
+        GameLog.scan(dir.resolve(GameLog.FILE), stats);
+        assertEquals(500, stats.games);
+        assertEquals(pvpX, stats.pvpXWins);
+        assertEquals(pvpO, stats.pvpOWins);
+        assertEquals(pvpDraws, stats.pvpDraws);
+        assertEquals(pvcPlayer, stats.pvcPlayerWins);
+        assertEquals(pvcComputer, stats.pvcComputerWins);
+        assertEquals(pvcDraws, stats.pvcDraws);
+        long openings = 0;
+        for (long[] o : stats.openings) openings += o[0] + o[1] + o[2];
+        assertEquals(500, openings);
+        assertFalse(stats.averageLength() < 5);
+        // hundreds of matchups, so the table has grown a few times
+        for (Game g : all) {
+            int[] m = stats.matchup(g.nameX, g.nameO, g.vsComputer, g.difficulty);
+            assertEquals(gamesPerMatchup.get(matchupKey(g)), m[0] + m[1] + m[2]);
+        }
+    }
+
+    private static List<Object> matchupKey(Game g) {
+        if (g.vsComputer) return List.of(g.difficulty, g.nameX);
+        return g.nameX.compareTo(g.nameO) <= 0 ? List.of(g.nameX, g.nameO) : List.of(g.nameO, g.nameX);
+    }
+
+    private static Board won(int player) {
+        Board board = new Board();
+        int[] cells = player == 1 ? new int[]{0, 3, 1, 4, 2} : new int[]{0, 3, 1, 4, 8, 5};
+        for (int i = 0; i < cells.length; i++) board.makeMove(cells[i] / 3, cells[i] % 3, i % 2 == 0 ? 1 : 2);
+        return board;
+    }
+
+    @Test
+    void resetClearsOnlyItsMatchup() throws IOException {
+        try (GameLog log = new GameLog(dir)) {
+            log.append(won(1), GameLog.X_WON, false, 0, "Ann", "Bob");
+            log.append(won(2), GameLog.O_WON, false, 0, "Bob", "Ann");
+            log.append(won(1), GameLog.X_WON, false, 0, "Ann", "Cy");
+            log.append(won(1), GameLog.X_WON, true, 3, "Ann", "Computer");
+            log.append(won(2), GameLog.O_WON, true, 4, "Ann", "Komputer");
+            // the pair whichever side each played, and one computer level
+            log.appendReset("Bob", "Ann", false, 0);
+            log.appendReset("Ann", "Computer", true, 4);
+            log.append(won(2), GameLog.O_WON, false, 0, "Ann", "Bob");
+        }
+        GameLog.Stats stats = new GameLog.Stats();
+        GameLog.scan(dir.resolve(GameLog.FILE), stats);
+        assertEquals(6, stats.games);
+        assertEquals(2, stats.resets);
+        // Bob won the one game since, as O
+        assertArrayEquals(new int[]{1, 0, 0}, stats.matchup("Bob", "Ann", false, 0));
+        assertArrayEquals(new int[]{0, 1, 0}, stats.matchup("Ann", "Bob", false, 0));
+        assertArrayEquals(new int[]{1, 0, 0}, stats.matchup("Ann", "Cy", false, 0));
+        assertArrayEquals(new int[]{1, 0, 0}, stats.matchup("Ann", "", true, 3));
+        assertArrayEquals(new int[3], stats.matchup("Ann", "", true, 4));
+        assertEquals(1, stats.pvpXWins);
+        assertEquals(1, stats.pvpOWins);
+        assertEquals(1, stats.pvcPlayerWins);
+        assertEquals(0, stats.pvcComputerWins);
+    }
+
+    @Test
+    void matchupsCountWinsByPlayerWhicheverSideTheyPlayed() throws IOException {
+        try (GameLog log = new GameLog(dir)) {
+            log.append(won(1), GameLog.X_WON, false, 0, "Ann", "Bob");
+            log.append(won(1), GameLog.X_WON, false, 0, "Bob", "Ann");
+            log.append(won(2), GameLog.O_WON, false, 0, "Bob", "Ann");
+            log.append(won(2), GameLog.O_WON, false, 0, "Zoë", "Ann");
+            log.append(won(1), GameLog.DRAW, false, 0, "Ann", "Zoë");
+        }
+        GameLog.Stats stats = new GameLog.Stats();
+        GameLog.scan(dir.resolve(GameLog.FILE), stats);
+        assertArrayEquals(new int[]{2, 1, 0}, stats.matchup("Ann", "Bob", false, 0));
+        assertArrayEquals(new int[]{1, 2, 0}, stats.matchup("Bob", "Ann", false, 0));
+        assertArrayEquals(new int[]{1, 0, 1}, stats.matchup("Ann", "Zoë", false, 0));
+        assertArrayEquals(new int[]{0, 1, 1}, stats.matchup("Zoë", "Ann", false, 0));
+        assertArrayEquals(new int[3], stats.matchup("Bob", "Zoë", false, 0));
+        assertEquals(2, stats.pvpXWins);
+        assertEquals(2, stats.pvpOWins);
+    }
+
+    @Test
+    void resetWithoutAMatchupClearsEverything() throws IOException {
+        Path file = dir.resolve(GameLog.FILE);
+        try (GameLog log = new GameLog(dir)) {
+            log.append(won(1), GameLog.X_WON, false, 0, "Ann", "Bob");
+            log.append(won(1), GameLog.X_WON, true, 2, "Ann", "Computer");
+        }
+        // as written before resets named their matchup: record version 0, no names
+        ByteBuffer old = GameLog.encode(0, null, GameLog.RESET, false, 0, "", "");
+        old.put(10, (byte) (old.get(10) & 0x3F));
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ch.write(old);
+        }
+        try (GameLog log = new GameLog(dir)) {
+            log.append(won(2), GameLog.O_WON, true, 2, "Ann", "Computer");
+        }
+        GameLog.Stats stats = new GameLog.Stats();
+        GameLog.scan(file, stats);
+        assertEquals(1, stats.resets);
+        assertEquals(0, stats.pvpXWins);
+        assertEquals(0, stats.pvcPlayerWins);
+        assertEquals(1, stats.pvcComputerWins);
+        assertArrayEquals(new int[3], stats.matchup("Ann", "Bob", false, 0));
+    }
+}
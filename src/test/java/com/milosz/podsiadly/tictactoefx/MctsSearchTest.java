@@ -0,0 +1,60 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MctsSearchTest {
+    private MctsSearch search;
+
+    @AfterEach
+    void shutdown() { if (search != null) search.shutdown(); }
+
+    @Test
+    void nodeCapBelowTheRootsChildrenStillGivesAMove() {
+        search = new MctsSearch(2, 10);
+        Board board = new Board(9, 5);
+        board.makeMove(4, 4, 1);
+        MctsSearch.Result result = search.search(board, 2, 1000, 0);
+        assertNotNull(result);
+        assertTrue(board.isCellAvailable(result.row, result.col));
+    }
+
+    @Test
+    void takesAnImmediateWin() {
+        search = new MctsSearch(4, 1 << 16);
+        Board board = new Board();
+        board.makeMove(0, 0, 1);
+        board.makeMove(1, 0, 2);
+        board.makeMove(0, 1, 1);
+        board.makeMove(1, 1, 2);
+        MctsSearch.Result result = search.search(board, 1, 20_000, 0);
+        assertEquals(0, result.row);
+        assertEquals(2, result.col);
+    }
+
+    @Test
+    void aCancelledSearchLeavesNothingRunningInTheTree() {
+        search = new MctsSearch(4, 1 << 18);
+        Board big = new Board(15, 5);
+        Thread.currentThread().interrupt();
+        // the interrupt cancels the search at once; its workers must be gone before the next one starts
+        assertThrows(CancellationException.class, () -> search.search(big, 1, 0, 10_000));
+        assertTrue(Thread.interrupted());
+        Board board = new Board();
+        board.makeMove(0, 0, 1);
+        board.makeMove(1, 0, 2);
+        board.makeMove(0, 1, 1);
+        board.makeMove(1, 1, 2);
+        for (int i = 0; i < 20; i++) {
+            MctsSearch.Result result = search.search(board, 1, 5_000, 0);
+            assertTrue(board.isCellAvailable(result.row, result.col));
+        }
+    }
+}
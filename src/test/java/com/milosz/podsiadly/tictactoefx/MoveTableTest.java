@@ -0,0 +1,38 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoveTableTest {
+
+    @Test
+    void bundledTableMatchesTheSearch() {
+        MoveTable table = MoveTable.loadDefault();
+        assertNotNull(table, "perfect-play.bin is missing from the resources");
+        // every reachable position that isn't won or full
+        assertEquals(4520, MoveTableGenerator.verify(table));
+    }
+
+    @Test
+    void bestMoveIsOneOfTheOptimalMoves() {
+        MoveTable table = MoveTable.loadDefault();
+        assertNotNull(table);
+        assertFalse(table.supports(new Board(4, 3)));
+        Board board = new Board();
+        board.makeMove(0, 0, 1);
+        int mask = table.bestMoves(board, 2);
+        SplittableRandom rng = new SplittableRandom(5);
+        for (int i = 0; i < 50; i++) {
+            int[] mv = table.bestMove(board, 2, rng);
+            assertTrue((mask & 1 << (mv[0] * 3 + mv[1])) != 0);
+        }
+        // only the centre holds the draw against a corner opening
+        assertEquals(1 << 4, mask);
+    }
+}
@@ -0,0 +1,199 @@
+package com.milosz.podsiadly.tictactoefx;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProfileStoreTest {
+    @TempDir
+    Path dir;
+
+    // the rows recordGame should produce, counted in memory: key -> wins, losses, draws
+    private final Map<String, int[]> expected = new HashMap<>();
+
+    private void count(String name, int kind, int difficulty, String opponent, int result) {
+        int[] row = expected.computeIfAbsent(name + '|' + kind + '|' + difficulty + '|' + opponent, k -> new int[3]);
+        row[result == ProfileStore.WIN ? 0 : result == ProfileStore.LOSS ? 1 : 2]++;
+    }
+
+    private void play(ProfileStore store, String x, String o, boolean vsComputer, int difficulty, int result) {
+        store.recordGame(x, o, vsComputer, difficulty, result);
+        int other = result == ProfileStore.WIN ? ProfileStore.LOSS : result == ProfileStore.LOSS ? ProfileStore.WIN : ProfileStore.DRAW;
+        count(x, ProfileStore.TOTAL, 0, "", result);
+        if (vsComputer) {
+            count(x, ProfileStore.VS_COMPUTER, difficulty, "", result);
+        } else {
+            count(x, ProfileStore.VS_HUMAN, 0, o, result);
+            count(o, ProfileStore.TOTAL, 0, "", other);
+            count(o, ProfileStore.VS_HUMAN, 0, x, other);
+        }
+    }
+
+    private static int[] counts(ProfileStore.Profile p) { return new int[]{p.wins, p.losses, p.draws}; }
+
+    private void assertMatchesModel(ProfileStore store) throws IOException {
+        assertEquals(expected.size(), store.size());
+        for (Map.Entry<String, int[]> e : expected.entrySet()) {
+            String[] key = e.getKey().split("\\|", -1);
+            ProfileStore.Profile p = store.get(key[0], Integer.parseInt(key[1]), Integer.parseInt(key[2]), key[3]);
+            assertArrayEquals(e.getValue(), counts(p), e.getKey());
+        }
+    }
+
+    @Test
+    void randomGamesMatchAnInMemoryModel() throws IOException {
+        SplittableRandom rng = new SplittableRandom(21);
+        try (ProfileStore store = new ProfileStore(dir)) {
+            // new players keep arriving, so rows are both updated in place and merged in
+            for (int i = 0; i < 3000; i++) {
+                String x = "P" + rng.nextInt(1 + i / 10), o = "P" + rng.nextInt(1 + i / 10);
+                boolean vsComputer = rng.nextInt(3) == 0 || x.equals(o);
+                play(store, x, o, vsComputer, vsComputer ? 1 + rng.nextInt(5) : 0, rng.nextInt(3));
+                if (i % 500 == 0) store.flush();
+            }
+            store.flush();
+            assertMatchesModel(store);
+        }
+        // and the same from a fresh instance on the file
+        try (ProfileStore reopened = new ProfileStore(dir)) {
+            assertMatchesModel(reopened);
+        }
+    }
+
+    @Test
+    void longNamesAreCutOnACharacterBoundary() throws IOException {
+        String name = "Ż".repeat(40);   // two bytes each, so 16 fit
+        try (ProfileStore store = new ProfileStore(dir)) {
+            store.recordGame(name, "", true, 2, ProfileStore.WIN);
+            store.flush();
+            assertEquals("Ż".repeat(16), store.getTotal(name).name);
+            assertEquals(1, store.getVsComputer(name, 2).wins);
+        }
+    }
+
+    @Test
+    void resetClearsTheMatchupAndTakesItOutOfTheTotals() throws IOException {
+        try (ProfileStore store = new ProfileStore(dir)) {
+            play(store, "Ann", "Bob", false, 0, ProfileStore.WIN);
+            play(store, "Bob", "Ann", false, 0, ProfileStore.WIN);
+            play(store, "Ann", "Cy", false, 0, ProfileStore.DRAW);
+            play(store, "Ann", "", true, 3, ProfileStore.LOSS);
+            store.resetMatch("Ann", "Bob", false, 0);
+            store.flush();
+            assertArrayEquals(new int[3], counts(store.getVsHuman("Ann", "Bob")));
+            assertArrayEquals(new int[3], counts(store.getVsHuman("Bob", "Ann")));
+            assertArrayEquals(new int[]{0, 1, 1}, counts(store.getTotal("Ann")));
+            assertArrayEquals(new int[3], counts(store.getTotal("Bob")));
+            assertArrayEquals(new int[]{0, 0, 1}, counts(store.getVsHuman("Ann", "Cy")));
+            assertArrayEquals(new int[]{0, 1, 0}, counts(store.getVsComputer("Ann", 3)));
+        }
+    }
+
+    @Test
+    void leaderboardRanksByWinsThenLosses() throws IOException {
+        try (ProfileStore store = new ProfileStore(dir)) {
+            for (int i = 0; i < 3; i++) store.recordGame("Ann", "", true, 1, ProfileStore.WIN);
+            for (int i = 0; i < 3; i++) store.recordGame("Bob", "", true, 1, ProfileStore.WIN);
+            store.recordGame("Bob", "", true, 1, ProfileStore.LOSS);
+            store.recordGame("Cy", "", true, 1, ProfileStore.WIN);
+            store.recordGame("Dee", "", true, 1, ProfileStore.LOSS);
+            store.flush();
+            List<ProfileStore.Profile> top = store.leaderboard(3);
+            assertEquals(List.of("Ann", "Bob", "Cy"), top.stream().map(p -> p.name).toList());
+            assertTrue(top.stream().allMatch(p -> p.kind == ProfileStore.TOTAL));
+        }
+    }
+
+    @Test
+    void lookupsAfterWritesSeeQueuedGames() throws Exception {
+        try (ProfileStore store = new ProfileStore(dir)) {
+            for (int i = 0; i < 50; i++) store.recordGame("Ann", "Bob", false, 0, i % 3);
+            ProfileStore.Profile p = store.getAfterWrites("Bob", ProfileStore.VS_HUMAN, 0, "Ann").get();
+            assertArrayEquals(new int[]{16, 17, 17}, counts(p));
+        }
+    }
+
+    // Replays a crash in the middle of an in-place update: the journal of the update is on disk,
+    // the file still holds the rows from before (or torn ones).
+    @Test
+    void anInterruptedUpdateIsRedoneFromTheJournal() throws IOException {
+        Path file = dir.resolve(ProfileStore.FILE), journal = dir.resolve(ProfileStore.JOURNAL_FILE);
+        try (ProfileStore store = new ProfileStore(dir)) {
+            store.recordGame("Ann", "Bob", false, 0, ProfileStore.WIN);
+            store.flush();
+        }
+        byte[] before = Files.readAllBytes(file);
+        try (ProfileStore store = new ProfileStore(dir)) {
+            store.recordGame("Ann", "Bob", false, 0, ProfileStore.DRAW);
+            store.flush();
+        }
+        byte[] after = Files.readAllBytes(file);
+        assertEquals(0, Files.size(journal));
+
+        // the journal that update wrote: every row of the file, since every row changed
+        int rows = (after.length - ProfileStore.HEADER) / ProfileStore.RECORD;
+        ByteBuffer entries = ByteBuffer.allocate(8 + rows * ProfileStore.RECORD + 4);
+        entries.putInt(ProfileStore.JOURNAL_MAGIC).putInt(rows).put(after, ProfileStore.HEADER, rows * ProfileStore.RECORD);
+        CRC32 crc = new CRC32();
+        crc.update(entries.array(), 0, entries.position());
+        entries.putInt((int) crc.getValue());
+
+        // torn rows in the file (only the counters: the key bytes written are the ones already there)
+        byte[] torn = before.clone();
+        for (int r = 0; r < rows; r++) {
+            int counters = ProfileStore.HEADER + r * ProfileStore.RECORD + ProfileStore.KEY;
+            Arrays.fill(torn, counters, counters + 12, (byte) 0xFF);
+        }
+        Files.write(file, torn);
+        Files.write(journal, entries.array());
+        try (ProfileStore store = new ProfileStore(dir)) {
+            assertArrayEquals(new int[]{1, 0, 1}, counts(store.getVsHuman("Ann", "Bob")));
+            assertArrayEquals(new int[]{0, 1, 1}, counts(store.getTotal("Bob")));
+        }
+        assertArrayEquals(after, Files.readAllBytes(file));
+        assertEquals(0, Files.size(journal));
+
+        // a journal cut short was never followed by a write to the file, so it is dropped
+        Files.write(file, before);
+        Files.write(journal, Arrays.copyOf(entries.array(), entries.capacity() - 1));
+        try (ProfileStore store = new ProfileStore(dir)) {
+            assertArrayEquals(new int[]{1, 0, 0}, counts(store.getVsHuman("Ann", "Bob")));
+        }
+        assertEquals(0, Files.size(journal));
+    }
+
+    @Test
+    void oldScoresAreImportedOnce() throws IOException, InterruptedException, ExecutionException {
+        Path legacy = dir.resolve(ProfileStore.LEGACY_FILE);
+        Files.writeString(legacy, "pvp.p1Wins=4\npvp.p2Wins=2\npvp.draws=1\n"
+                + "pvc.playerWins=3\npvc.computerWins=5\npvc.draws=x\n");
+        try (ProfileStore store = new ProfileStore(dir)) {
+            store.importLegacyScores("Ann", "Bob", 4);
+            store.importLegacyScores("Ann", "Bob", 4);
+            ProfileStore.Profile vsComputer = store.getAfterWrites("Ann", ProfileStore.VS_COMPUTER, 4, "").get();
+            assertArrayEquals(new int[]{3, 5, 0}, counts(vsComputer));
+            assertArrayEquals(new int[]{4, 2, 1}, counts(store.getVsHuman("Ann", "Bob")));
+            assertArrayEquals(new int[]{2, 4, 1}, counts(store.getVsHuman("Bob", "Ann")));
+            assertArrayEquals(new int[]{7, 7, 1}, counts(store.getTotal("Ann")));
+            assertArrayEquals(new int[]{2, 4, 1}, counts(store.getTotal("Bob")));
+        }
+        assertFalse(Files.exists(legacy));
+        assertTrue(Files.exists(dir.resolve(ProfileStore.LEGACY_FILE + ".imported")));
+    }
+}